@@ -0,0 +1,21 @@
+package in.chester.moneymanager;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+
+// Sets the @Value fields that Spring would normally inject, so beans can be benchmarked without a context.
+public final class BenchmarkFields {
+
+    private BenchmarkFields() {
+    }
+
+    public static void set(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + name + " on " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
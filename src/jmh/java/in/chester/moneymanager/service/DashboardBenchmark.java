@@ -0,0 +1,60 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.dto.IncomeDTO;
+import in.chester.moneymanager.dto.RecentTransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The merge and sort of the five latest incomes and expenses behind every dashboard load.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DashboardBenchmark {
+
+    private List<IncomeDTO> incomes;
+    private List<ExpenseDTO> expenses;
+
+    @Setup
+    public void setUp() {
+        incomes = new ArrayList<>();
+        expenses = new ArrayList<>();
+        LocalDate today = LocalDate.of(2025, 3, 14);
+        for (int i = 0; i < 5; i++) {
+            // interleaved dates with some same-day ties so the createdAt comparison is exercised
+            incomes.add(IncomeDTO.builder()
+                    .id((long) i)
+                    .name("Income " + i)
+                    .icon("bank")
+                    .amount(BigDecimal.valueOf(1000 + i))
+                    .date(today.minusDays(i * 2L))
+                    .createdAt(LocalDateTime.of(2025, 3, 14, 9, i))
+                    .build());
+            expenses.add(ExpenseDTO.builder()
+                    .id((long) i + 100)
+                    .name("Expense " + i)
+                    .icon("cart")
+                    .amount(BigDecimal.valueOf(50 + i))
+                    .date(today.minusDays(i))
+                    .createdAt(LocalDateTime.of(2025, 3, 14, 10, i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<RecentTransactionDTO> mergeRecentTransactions() {
+        return DashboardService.mergeRecentTransactions(1L, incomes, expenses);
+    }
+}
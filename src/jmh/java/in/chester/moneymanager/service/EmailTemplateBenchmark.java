@@ -0,0 +1,67 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.BenchmarkFields;
+import in.chester.moneymanager.dto.ExpenseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Notification HTML rendering; the summary benchmark renders 10k summaries per invocation like a nightly run.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmailTemplateBenchmark {
+
+    private static final int SUMMARIES = 10_000;
+
+    private EmailTemplateService emailTemplateService;
+    private String[] fullNames;
+    private List<ExpenseDTO> expenses;
+
+    @Setup
+    public void setUp() {
+        emailTemplateService = new EmailTemplateService();
+        BenchmarkFields.set(emailTemplateService, "frontEndUrl", "https://moneymanager.example.com");
+        emailTemplateService.compileTemplates();
+        fullNames = new String[SUMMARIES];
+        for (int i = 0; i < SUMMARIES; i++) {
+            fullNames[i] = "User " + i + (i % 10 == 0 ? " <O'Brien & Co>" : "");
+        }
+        expenses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expenses.add(ExpenseDTO.builder()
+                    .id((long) i)
+                    .name("Expense " + i)
+                    .amount(new BigDecimal("125.50"))
+                    .categoryId(1L)
+                    .categoryName("Food & Drink")
+                    .date(LocalDate.of(2025, 3, 14))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public String reminder() {
+        return emailTemplateService.renderReminder(fullNames[1]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SUMMARIES)
+    public void expenseSummaries(Blackhole blackhole) {
+        for (String fullName : fullNames) {
+            blackhole.consume(emailTemplateService.renderExpenseSummary(fullName, expenses));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.dto.IncomeDTO;
+import in.chester.moneymanager.entity.CategoryEntity;
+import in.chester.moneymanager.entity.ExpenseEntity;
+import in.chester.moneymanager.entity.IncomeEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping done for every row of every listing.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    private ExpenseService expenseService;
+    private IncomeService incomeService;
+    private ExpenseEntity expense;
+    private IncomeEntity income;
+
+    @Setup
+    public void setUp() {
+        expenseService = new ExpenseService(null, null, null, null, null, null, null);
+        incomeService = new IncomeService(null, null, null, null, null, null, null);
+        CategoryEntity category = CategoryEntity.builder().id(7L).name("Groceries").icon("cart").type("expense").build();
+        expense = ExpenseEntity.builder()
+                .id(42L)
+                .name("Weekly shop")
+                .icon("cart")
+                .amount(new BigDecimal("1234.50"))
+                .date(LocalDate.of(2025, 3, 14))
+                .createdAt(LocalDateTime.of(2025, 3, 14, 18, 30))
+                .updatedAt(LocalDateTime.of(2025, 3, 14, 18, 30))
+                .category(category)
+                .build();
+        income = IncomeEntity.builder()
+                .id(43L)
+                .name("Salary")
+                .icon("bank")
+                .amount(new BigDecimal("85000.00"))
+                .date(LocalDate.of(2025, 3, 1))
+                .createdAt(LocalDateTime.of(2025, 3, 1, 9, 0))
+                .updatedAt(LocalDateTime.of(2025, 3, 1, 9, 0))
+                .category(category)
+                .build();
+    }
+
+    @Benchmark
+    public ExpenseDTO expenseToDto() {
+        return expenseService.convertToDto(expense);
+    }
+
+    @Benchmark
+    public IncomeDTO incomeToDto() {
+        return incomeService.convertToDto(income);
+    }
+}
@@ -0,0 +1,77 @@
+package in.chester.moneymanager.util;
+
+import in.chester.moneymanager.BenchmarkFields;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Token issue and check on every login and every authenticated request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private UserDetails userDetails;
+    private long counter;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        BenchmarkFields.set(jwtUtil, "SECRET_KEY", SECRET);
+        BenchmarkFields.set(jwtUtil, "expirationMs", TimeUnit.HOURS.toMillis(10));
+        BenchmarkFields.set(jwtUtil, "verifiedCacheMaxSize", 10_000L);
+        jwtUtil.init();
+        token = jwtUtil.generateToken("bench@example.com");
+        userDetails = User.withUsername("bench@example.com").password("x").build();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("bench@example.com");
+    }
+
+    // steady state of the request filter: the same token seen again
+    @Benchmark
+    public Boolean validateCachedToken() {
+        return jwtUtil.validateToken(jwtUtil.verify(token), userDetails);
+    }
+
+    // baseline: the filter before the verify cache, extractUsername + validateToken,
+    // each building a parser and checking the signature again (three parses per request)
+    @Benchmark
+    public Boolean validateThreeParses() {
+        String email = parseClaims(token).getSubject();
+        String username = parseClaims(token).getSubject();
+        Date expiration = parseClaims(token).getExpiration();
+        return email != null && username.equals(userDetails.getUsername()) && !expiration.before(new Date());
+    }
+
+    // first sight of a token: full parse and signature check
+    @Benchmark
+    public Boolean validateNewToken() {
+        String fresh = jwtUtil.generateToken("bench" + (counter++) + "@example.com");
+        return jwtUtil.verify(fresh).getSubject() != null;
+    }
+
+    private static Claims parseClaims(String token) {
+        return Jwts.parser()
+                .setSigningKey(SECRET)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,50 @@
+package in.chester.moneymanager.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+// Controller timings (http.server.requests), repository timings (spring.data.repository.invocations),
+// Hikari pool gauges and Hibernate statistics come from Boot's auto-configuration;
+// this adds @Timed support and a timer around every public service method.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Aspect
+    @Component
+    @RequiredArgsConstructor
+    public static class ServiceMetricsAspect {
+
+        private final MeterRegistry meterRegistry;
+
+        @Around("within(@org.springframework.stereotype.Service in.chester.moneymanager..*) && execution(public * *(..))")
+        public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String exception = "none";
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable t) {
+                exception = t.getClass().getSimpleName();
+                throw t;
+            } finally {
+                sample.stop(Timer.builder("service.method")
+                        .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                        .tag("method", joinPoint.getSignature().getName())
+                        .tag("exception", exception)
+                        .register(meterRegistry));
+            }
+        }
+    }
+}
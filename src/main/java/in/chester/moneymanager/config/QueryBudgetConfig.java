@@ -0,0 +1,112 @@
+package in.chester.moneymanager.config;
+
+import in.chester.moneymanager.util.QueryBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Counts SQL statements per HTTP request and per scheduled job run and reports the ones over budget.
+// With app.query-budget.fail-on-violation=true the statement that breaks the budget throws instead.
+@Configuration
+@Slf4j
+public class QueryBudgetConfig {
+
+    @Value("${app.query-budget.max-per-request:20}")
+    private int maxPerRequest;
+
+    @Value("${app.query-budget.fail-on-violation:false}")
+    private boolean failOnViolation;
+
+    @Bean
+    public HibernatePropertiesCustomizer queryBudgetInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryBudget.Inspector());
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> queryBudgetFilter(MeterRegistry meterRegistry) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                QueryBudget.Scope scope = QueryBudget.open(request.getMethod() + " " + request.getRequestURI(),
+                        maxPerRequest, failOnViolation);
+                if (scope == null) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    if (route != null) {
+                        scope.setName(request.getMethod() + " " + route);
+                    }
+                    scope.close();
+                    report(scope, "request", meterRegistry);
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        // ahead of Spring Security so the JWT filter's lookups are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static void report(QueryBudget.Scope scope, String kind, MeterRegistry meterRegistry) {
+        meterRegistry.summary("query.budget.statements", "kind", kind).record(scope.getCount());
+        if (scope.isExceeded()) {
+            meterRegistry.counter("query.budget.violations", "kind", kind).increment();
+            log.warn("Query budget exceeded by {}: {} statements (budget {}); most repeated: {}",
+                    scope.getName(), scope.getCount(), scope.getBudget(), scope.mostRepeated(3));
+        }
+    }
+
+    @Aspect
+    @Component
+    @RequiredArgsConstructor
+    public static class ScheduledJobQueryBudget {
+
+        private final MeterRegistry meterRegistry;
+
+        @Value("${app.query-budget.max-per-job:10000}")
+        private int maxPerJob;
+
+        @Value("${app.query-budget.fail-on-violation:false}")
+        private boolean failOnViolation;
+
+        @Around("@annotation(org.springframework.scheduling.annotation.Scheduled)")
+        public Object countJobStatements(ProceedingJoinPoint joinPoint) throws Throwable {
+            String name = "job " + joinPoint.getSignature().getDeclaringType().getSimpleName()
+                    + "." + joinPoint.getSignature().getName();
+            QueryBudget.Scope scope = QueryBudget.open(name, maxPerJob, failOnViolation);
+            if (scope == null) {
+                return joinPoint.proceed();
+            }
+            try {
+                return joinPoint.proceed();
+            } finally {
+                scope.close();
+                report(scope, "job", meterRegistry);
+            }
+        }
+    }
+}
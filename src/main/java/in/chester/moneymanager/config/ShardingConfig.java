@@ -0,0 +1,195 @@
+package in.chester.moneymanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import in.chester.moneymanager.security.AppUserPrincipal;
+import in.chester.moneymanager.service.ShardDirectory;
+import in.chester.moneymanager.util.ShardContext;
+import in.chester.moneymanager.util.ShardRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropRegistryNotAvailableImpl;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Profile-id sharding, only active when app.sharding.urls lists at least one shard.
+// spring.datasource becomes the directory; each shard gets a pool with the directory's settings.
+// Authenticated requests are bound to the caller's home shard, see ShardDirectory for what lives where.
+@Configuration
+@ConditionalOnExpression("!'${app.sharding.urls:}'.isEmpty()")
+@Slf4j
+public class ShardingConfig {
+
+    public ShardingConfig(@Value("${app.datasource.replica.url:}") String replicaUrl) {
+        if (!replicaUrl.isEmpty()) {
+            throw new IllegalStateException("app.sharding.urls cannot be combined with app.datasource.replica.url");
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource directoryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("directory");
+        return dataSource;
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource directoryDataSource, MeterRegistry meterRegistry,
+                                                         @Value("${app.sharding.urls}") List<String> urls,
+                                                         @Value("${app.sharding.username:${spring.datasource.username:}}") String username,
+                                                         @Value("${app.sharding.password:${spring.datasource.password:}}") String password) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            directoryDataSource.copyStateTo(dataSource);
+            dataSource.setJdbcUrl(urls.get(shard));
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setPoolName("shard-" + shard);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(directoryDataSource, shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // Binds authenticated requests to the caller's home shard; runs after the security filter chain
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> shardFilter(ShardDirectory shardDirectory) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication == null || !(authentication.getPrincipal() instanceof AppUserPrincipal principal)) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                Integer previous = ShardContext.bind(shardDirectory.shardOf(principal.getId()));
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ShardContext.restore(previous);
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(0);
+        return registration;
+    }
+
+    @Bean
+    public ShardedRepositoryGuard shardedRepositoryGuard(ShardDirectory shardDirectory) {
+        return new ShardedRepositoryGuard(shardDirectory);
+    }
+
+    // ddl-auto only touches the directory; the same schema action is replayed on every shard
+    @Bean
+    public MetadataCapture shardMetadataCapture() {
+        return new MetadataCapture();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardMetadataCaptureCustomizer(MetadataCapture shardMetadataCapture) {
+        return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(shardMetadataCapture));
+    }
+
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                                             MetadataCapture shardMetadataCapture,
+                                                             @Value("${app.sharding.urls}") List<String> urls) {
+        return () -> {
+            SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            for (int shard = 0; shard < urls.size(); shard++) {
+                ShardContext.runOn(shard, () -> SchemaManagementToolCoordinator.process(shardMetadataCapture.metadata,
+                        sessionFactory.getServiceRegistry(), sessionFactory.getProperties(),
+                        DelayedDropRegistryNotAvailableImpl.INSTANCE));
+            }
+            log.info("Schema management applied to {} shards", urls.size());
+        };
+    }
+
+    // Calls into the sharded repositories use the bound shard, else the calling profile's home shard.
+    // With neither the call would silently hit the directory, so it is refused.
+    @Aspect
+    @RequiredArgsConstructor
+    public static class ShardedRepositoryGuard {
+
+        private final ShardDirectory shardDirectory;
+
+        @Around("execution(* in.chester.moneymanager.repository.ExpenseRepository+.*(..)) || " +
+                "execution(* in.chester.moneymanager.repository.IncomeRepository+.*(..)) || " +
+                "execution(* in.chester.moneymanager.repository.CategoryRepository+.*(..))")
+        public Object resolveShard(ProceedingJoinPoint joinPoint) throws Throwable {
+            if (ShardContext.current() != null) {
+                return joinPoint.proceed();
+            }
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof AppUserPrincipal principal)) {
+                throw new IllegalStateException("No shard bound for " + joinPoint.getSignature().toShortString());
+            }
+            Integer previous = ShardContext.bind(shardDirectory.shardOf(principal.getId()));
+            try {
+                return joinPoint.proceed();
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+    }
+
+    public static class MetadataCapture implements Integrator {
+
+        private volatile Metadata metadata;
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            this.metadata = metadata;
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
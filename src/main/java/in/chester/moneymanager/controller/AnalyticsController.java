@@ -0,0 +1,32 @@
+package in.chester.moneymanager.controller;
+
+import in.chester.moneymanager.dto.CategorySpendDTO;
+import in.chester.moneymanager.service.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping("/category-spend")
+    public ResponseEntity<List<CategorySpendDTO>> getCategorySpend(@RequestParam(defaultValue = "expense") String type,
+                                                                   @RequestParam(defaultValue = "6") int months) {
+        try {
+            return ResponseEntity.ok(analyticsService.getCategorySpendForCurrentUser(type.toLowerCase(), months));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -2,7 +2,9 @@ package in.chester.moneymanager.controller;
 
 import in.chester.moneymanager.dto.CategoryDTO;
 import in.chester.moneymanager.service.CategoryService;
+import in.chester.moneymanager.service.DataVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -23,6 +26,7 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final DataVersionService dataVersionService;
 
     @PostMapping("/create")
     public ResponseEntity<CategoryDTO> createCategory(@RequestBody CategoryDTO categoryDTO) {
@@ -31,15 +35,31 @@ public class CategoryController {
     }
 
     @GetMapping("/get-categories")
-    public ResponseEntity<List<CategoryDTO>> getCategories() {
-        List<CategoryDTO> categories = categoryService.getCategoriesForCurrentUser();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryDTO>> getCategories(WebRequest request) {
+        long version = dataVersionService.currentVersionForCurrentUser();
+        String etag = dataVersionService.etagForCurrentUser(version, "categories");
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        List<CategoryDTO> categories = categoryService.getCategoriesForCurrentUser(version);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(categories);
     }
 
     @GetMapping("/{type}")
-    public ResponseEntity<List<CategoryDTO>> getCategoriesByTypeForCurrentUser(@PathVariable String type) {
-        List<CategoryDTO> categories = categoryService.getCategoriesByTypeForCurrentUser(type);
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryDTO>> getCategoriesByTypeForCurrentUser(@PathVariable String type, WebRequest request) {
+        long version = dataVersionService.currentVersionForCurrentUser();
+        String etag = dataVersionService.etagForCurrentUser(version, "categories");
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        List<CategoryDTO> categories = categoryService.getCategoriesByTypeForCurrentUser(type, version);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(categories);
     }
 
     @PutMapping("/update/{categoryId}")
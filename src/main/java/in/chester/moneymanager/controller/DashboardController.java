@@ -1,12 +1,15 @@
 package in.chester.moneymanager.controller;
 
 import in.chester.moneymanager.service.DashboardService;
+import in.chester.moneymanager.service.DataVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
@@ -16,11 +19,19 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DataVersionService dataVersionService;
 
+    // A poll whose If-None-Match matches the caller's data version gets a 304 after one primary-key read
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getDashboardData() {
+    public ResponseEntity<Map<String, Object>> getDashboardData(WebRequest request) {
+        String etag = dataVersionService.etagForCurrentUser("dashboard");
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         Map<String, Object> dashboardData = dashboardService.getDashboardData();
         return ResponseEntity.status(HttpStatus.OK)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
                 .body(dashboardData);
     }
 
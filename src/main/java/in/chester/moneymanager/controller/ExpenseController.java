@@ -1,8 +1,17 @@
 package in.chester.moneymanager.controller;
 
 import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.dto.FilterDTO;
+import in.chester.moneymanager.dto.ImportResultDTO;
+import in.chester.moneymanager.repository.KeysetPageQuery;
 import in.chester.moneymanager.service.ExpenseService;
+import in.chester.moneymanager.service.DataVersionService;
+import in.chester.moneymanager.service.ExportService;
+import in.chester.moneymanager.service.TransactionImportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,7 +22,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -22,6 +36,9 @@ import java.util.List;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExportService exportService;
+    private final TransactionImportService transactionImportService;
+    private final DataVersionService dataVersionService;
 
     @PostMapping("/create")
     public ResponseEntity<ExpenseDTO> addExpense(@RequestBody ExpenseDTO expenseDTO) {
@@ -30,9 +47,17 @@ public class ExpenseController {
     }
 
     @GetMapping("/get-expenses-crm")
-    public ResponseEntity<List<ExpenseDTO>> getExpensesForCrm() {
+    public ResponseEntity<List<ExpenseDTO>> getExpensesForCrm(WebRequest request) {
+        // the month is part of the tag, so the list rolls over on the first of the month
+        String etag = dataVersionService.etagForCurrentUser(YearMonth.now().toString());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<ExpenseDTO> expenses = expenseService.getCurrentMonthExpensesForCurrentUser();
-        return ResponseEntity.ok(expenses);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(expenses);
     }
 
     @DeleteMapping("/delete/{expenseId}")
@@ -40,4 +65,25 @@ public class ExpenseController {
         expenseService.deleteExpense(expenseId);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/export")
+    public void exportExpenses(@RequestBody FilterDTO filterDTO, HttpServletResponse response) throws IOException {
+        // checked before the headers go out, so a bad field still gets a plain 400
+        if (!KeysetPageQuery.SORT_FIELDS.contains(filterDTO.sortFieldOrDefault())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sortField. Must be 'date', 'amount' or 'name'.");
+        }
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses.xlsx\"");
+        exportService.exportExpensesForCurrentUser(filterDTO, response.getOutputStream());
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDTO> importExpenses(@RequestParam("file") MultipartFile file) throws IOException {
+        try {
+            ImportResultDTO result = transactionImportService.importExpensesForCurrentUser(file.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
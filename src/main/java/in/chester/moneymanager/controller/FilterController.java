@@ -4,18 +4,30 @@ package in.chester.moneymanager.controller;
 import in.chester.moneymanager.dto.ExpenseDTO;
 import in.chester.moneymanager.dto.FilterDTO;
 import in.chester.moneymanager.dto.IncomeDTO;
+import in.chester.moneymanager.dto.PageResponseDTO;
+import in.chester.moneymanager.repository.KeysetPageQuery;
 import in.chester.moneymanager.service.ExpenseService;
 import in.chester.moneymanager.service.IncomeService;
+import in.chester.moneymanager.service.ProfileService;
+import in.chester.moneymanager.util.KeysetCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,25 +36,87 @@ public class FilterController {
 
     private final IncomeService incomeService;
     private final ExpenseService expenseService;
+    private final ProfileService profileService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.filter.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.filter.max-page-size:200}")
+    private int maxPageSize;
 
     @PostMapping
     public ResponseEntity<?> filterTransactions(@RequestBody FilterDTO filterDTO) {
         // preparing the data or validation
-        LocalDate startDate = filterDTO.getStartDate() != null ? filterDTO.getStartDate() : LocalDate.MIN;
-        LocalDate endDate = filterDTO.getEndDate() != null ? filterDTO.getEndDate() : LocalDate.now();
-        String keyword = filterDTO.getKeyword() != null ? filterDTO.getKeyword() : "";
-        String sortField = filterDTO.getSortField() != null ? filterDTO.getSortField() : "date";
-        Sort.Direction direction = "desc".equalsIgnoreCase(filterDTO.getSortOrder()) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Sort sort = Sort.by(direction, sortField);
+        LocalDate startDate = filterDTO.startDateOrDefault();
+        LocalDate endDate = filterDTO.endDateOrDefault();
+        String keyword = filterDTO.keywordOrDefault();
+        String sortField = filterDTO.sortFieldOrDefault();
+        Sort.Direction direction = filterDTO.sortDirection();
+        if (!KeysetPageQuery.SORT_FIELDS.contains(sortField)) {
+            return ResponseEntity.badRequest().body("Invalid sortField. Must be 'date', 'amount' or 'name'.");
+        }
+
+        // the server caps the page size whatever the client asks for
+        int pageSize = filterDTO.getPageSize() != null ? filterDTO.getPageSize() : defaultPageSize;
+        pageSize = Math.max(1, Math.min(pageSize, maxPageSize));
+
+        KeysetCursor after = null;
+        if (filterDTO.getCursor() != null && !filterDTO.getCursor().isBlank()) {
+            try {
+                after = KeysetCursor.decode(filterDTO.getCursor());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor.");
+            }
+            if (!after.matches(sortField, direction)) {
+                return ResponseEntity.badRequest().body("Cursor does not match the requested sort.");
+            }
+        }
 
         if ("income".equalsIgnoreCase(filterDTO.getType())) {
-            List<IncomeDTO> incomes = incomeService.filterIncomes(startDate, endDate, keyword, sort);
+            PageResponseDTO<IncomeDTO> incomes = incomeService.filterIncomes(startDate, endDate, keyword, sortField, direction, after, pageSize);
             return ResponseEntity.ok(incomes);
         } else if ("expense".equalsIgnoreCase(filterDTO.getType())) {
-            List<ExpenseDTO> expenses = expenseService.filterExpenses(startDate, endDate, keyword, sort);
+            PageResponseDTO<ExpenseDTO> expenses = expenseService.filterExpenses(startDate, endDate, keyword, sortField, direction, after, pageSize);
             return ResponseEntity.ok(expenses);
         } else {
             return ResponseEntity.badRequest().body("Invalid type. Must be 'income' or 'expense'.");
         }
     }
+
+    // Streams every matching row as one JSON array, writing rows as they are read from the database
+    @PostMapping("/stream")
+    public void streamTransactions(@RequestBody FilterDTO filterDTO, HttpServletResponse response) throws IOException {
+        String sortField = filterDTO.sortFieldOrDefault();
+        if (!KeysetPageQuery.SORT_FIELDS.contains(sortField)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sortField. Must be 'date', 'amount' or 'name'.");
+        }
+        boolean income = "income".equalsIgnoreCase(filterDTO.getType());
+        if (!income && !"expense".equalsIgnoreCase(filterDTO.getType())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid type. Must be 'income' or 'expense'.");
+        }
+        Long profileId = profileService.getCurrentProfileId();
+        Sort sort = Sort.by(filterDTO.sortDirection(), sortField).and(Sort.by(filterDTO.sortDirection(), "id"));
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            if (income) {
+                incomeService.streamIncomes(profileId, filterDTO.startDateOrDefault(), filterDTO.endDateOrDefault(),
+                        filterDTO.keywordOrDefault(), sort, dto -> writeRow(generator, dto));
+            } else {
+                expenseService.streamExpenses(profileId, filterDTO.startDateOrDefault(), filterDTO.endDateOrDefault(),
+                        filterDTO.keywordOrDefault(), sort, dto -> writeRow(generator, dto));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static void writeRow(JsonGenerator generator, Object row) {
+        try {
+            generator.writeObject(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -1,9 +1,18 @@
 package in.chester.moneymanager.controller;
 
 
+import in.chester.moneymanager.dto.FilterDTO;
+import in.chester.moneymanager.dto.ImportResultDTO;
 import in.chester.moneymanager.dto.IncomeDTO;
+import in.chester.moneymanager.repository.KeysetPageQuery;
+import in.chester.moneymanager.service.ExportService;
+import in.chester.moneymanager.service.TransactionImportService;
 import in.chester.moneymanager.service.IncomeService;
+import in.chester.moneymanager.service.DataVersionService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,8 +21,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -22,6 +37,9 @@ import java.util.List;
 public class IncomeController {
 
     private final IncomeService incomeService;
+    private final ExportService exportService;
+    private final TransactionImportService transactionImportService;
+    private final DataVersionService dataVersionService;
 
     @PostMapping("/create")
     public ResponseEntity<IncomeDTO> addIncome(@RequestBody IncomeDTO incomeDTO) {
@@ -29,9 +47,17 @@ public class IncomeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
     @GetMapping("/get-incomes-crm")
-    public ResponseEntity<List<IncomeDTO>> getIncomeForCrm() {
+    public ResponseEntity<List<IncomeDTO>> getIncomeForCrm(WebRequest request) {
+        // the month is part of the tag, so the list rolls over on the first of the month
+        String etag = dataVersionService.etagForCurrentUser(YearMonth.now().toString());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<IncomeDTO> incomes = incomeService.getCurrentMonthIncomeForCurrentUser();
-        return ResponseEntity.ok(incomes);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(incomes);
     }
 
     @DeleteMapping("/delete/{incomeId}")
@@ -39,4 +65,25 @@ public class IncomeController {
         incomeService.deleteIncome(incomeId);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/export")
+    public void exportIncomes(@RequestBody FilterDTO filterDTO, HttpServletResponse response) throws IOException {
+        // checked before the headers go out, so a bad field still gets a plain 400
+        if (!KeysetPageQuery.SORT_FIELDS.contains(filterDTO.sortFieldOrDefault())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sortField. Must be 'date', 'amount' or 'name'.");
+        }
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"incomes.xlsx\"");
+        exportService.exportIncomesForCurrentUser(filterDTO, response.getOutputStream());
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDTO> importIncomes(@RequestParam("file") MultipartFile file) throws IOException {
+        try {
+            ImportResultDTO result = transactionImportService.importIncomesForCurrentUser(file.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
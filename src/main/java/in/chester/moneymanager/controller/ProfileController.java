@@ -8,10 +8,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.Map;
 
 @RestController
@@ -22,6 +26,9 @@ public class ProfileController {
 
     @PostMapping("/register")
     public ResponseEntity<ProfileDTO> registerProfile(@RequestBody ProfileDTO profileDTO) {
+        if (profileDTO.getTimezone() != null) {
+            profileDTO.setTimezone(normalizeTimezone(profileDTO.getTimezone()));
+        }
         ProfileDTO registeredProfile = profileService.registerProfile(profileDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(registeredProfile);
     }
@@ -55,10 +62,24 @@ public class ProfileController {
         }
     }
 
+    @PutMapping("/profile/timezone")
+    public ResponseEntity<ProfileDTO> updateTimezone(@RequestBody ProfileDTO profileDTO) {
+        if (profileDTO.getTimezone() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "timezone is required");
+        }
+        return ResponseEntity.ok(profileService.updateTimezone(normalizeTimezone(profileDTO.getTimezone())));
+    }
+
     @GetMapping("/test")
     public String test() {
         return "Test successful";
     }
 
-
+    private String normalizeTimezone(String timezone) {
+        try {
+            return ZoneId.of(timezone).getId();
+        } catch (DateTimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown timezone: " + timezone);
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package in.chester.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CategorySpendDTO {
+
+    private Long categoryId;
+    private String categoryName;
+    private String icon;
+    private LocalDate month;
+    private BigDecimal total;
+    private Long count;
+}
@@ -0,0 +1,22 @@
+package in.chester.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DashboardTotalsDTO {
+
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+
+    public BigDecimal getTotalBalance() {
+        return totalIncome.subtract(totalExpense);
+    }
+}
@@ -0,0 +1,18 @@
+package in.chester.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmailDTO {
+
+    private String to;
+    private String subject;
+    private String body;
+    private boolean html;
+}
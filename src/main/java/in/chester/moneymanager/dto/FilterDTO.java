@@ -1,6 +1,7 @@
 package in.chester.moneymanager.dto;
 
 import lombok.Data;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 
@@ -13,4 +14,27 @@ public class FilterDTO {
     private String type;
     private String sortField; // date, amount, name
     private String sortOrder; // asc, desc
+    private String cursor; // nextCursor of the previous page
+    private Integer pageSize;
+
+    // defaults applied when the client leaves a criterion out
+    public LocalDate startDateOrDefault() {
+        return startDate != null ? startDate : LocalDate.MIN;
+    }
+
+    public LocalDate endDateOrDefault() {
+        return endDate != null ? endDate : LocalDate.now();
+    }
+
+    public String keywordOrDefault() {
+        return keyword != null ? keyword : "";
+    }
+
+    public String sortFieldOrDefault() {
+        return sortField != null ? sortField : "date";
+    }
+
+    public Sort.Direction sortDirection() {
+        return "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
 }
@@ -0,0 +1,22 @@
+package in.chester.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportResultDTO {
+
+    private int imported;
+    private int failed;
+    // first rejected rows only, see app.import.max-reported-errors
+    @Builder.Default
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+}
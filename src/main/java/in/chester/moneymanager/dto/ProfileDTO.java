@@ -19,6 +19,7 @@ public class ProfileDTO {
     private String email;
     private String password;
     private String profileImgUrl;
+    private String timezone;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
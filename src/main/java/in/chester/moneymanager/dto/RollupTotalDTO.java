@@ -0,0 +1,22 @@
+package in.chester.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RollupTotalDTO {
+
+    private Long profileId;
+    private Long categoryId;
+    private Integer year;
+    private Integer month;
+    private BigDecimal total;
+    private Long count;
+}
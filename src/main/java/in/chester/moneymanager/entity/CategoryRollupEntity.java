@@ -0,0 +1,42 @@
+package in.chester.moneymanager.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Amount and count per (profile, category, month, type), kept in step with the ledger tables
+// so category and month charts never scan expenses_tbl or incomes_tbl.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@IdClass(CategoryRollupId.class)
+@Table(name = "category_rollups_tbl")
+public class CategoryRollupEntity {
+
+    @Id
+    private Long profileId;
+    @Id
+    private Long categoryId;
+    // first day of the month
+    @Id
+    private LocalDate monthStart;
+    // income or expense
+    @Id
+    private String type;
+
+    private BigDecimal amount;
+    private Long transactionCount;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package in.chester.moneymanager.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryRollupId implements Serializable {
+
+    private Long profileId;
+    private Long categoryId;
+    private LocalDate monthStart;
+    private String type;
+}
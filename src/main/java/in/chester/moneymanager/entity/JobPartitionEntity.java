@@ -0,0 +1,64 @@
+package in.chester.moneymanager.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// One profile id range of one run of a scheduled job. Nodes claim partitions with a lease and
+// record a checkpoint as they go, so a partition left behind by a dead node resumes where it stopped.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "job_partitions_tbl",
+        uniqueConstraints = @UniqueConstraint(name = "uk_job_partition", columnNames = {"jobName", "runKey", "partitionNo"}))
+public class JobPartitionEntity {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String jobName;
+    @Column(nullable = false)
+    private String runKey;
+    private int partitionNo;
+
+    // profile ids in (fromIdExclusive, toIdInclusive]
+    private Long fromIdExclusive;
+    private Long toIdInclusive;
+    // last profile id fully processed
+    private Long checkpointId;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    private String owner;
+    private LocalDateTime leaseUntil;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
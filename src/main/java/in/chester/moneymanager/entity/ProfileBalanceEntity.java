@@ -0,0 +1,33 @@
+package in.chester.moneymanager.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Running income/expense totals per profile, kept in step with the ledger tables
+// so the dashboard reads one row instead of summing the whole history.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "profile_balances_tbl")
+public class ProfileBalanceEntity {
+
+    @Id
+    private Long profileId;
+
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private Long incomeCount;
+    private Long expenseCount;
+
+    private LocalDateTime updatedAt;
+}
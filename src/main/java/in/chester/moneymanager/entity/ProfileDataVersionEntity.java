@@ -0,0 +1,29 @@
+package in.chester.moneymanager.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Per-profile counter bumped in every transaction that changes the profile's incomes, expenses
+// or categories; polled endpoints derive their ETags from it.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "profile_data_versions_tbl")
+public class ProfileDataVersionEntity {
+
+    @Id
+    private Long profileId;
+
+    private Long version;
+
+    private LocalDateTime updatedAt;
+}
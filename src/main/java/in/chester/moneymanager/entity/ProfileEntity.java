@@ -33,6 +33,8 @@ public class ProfileEntity {
     private String email;
     private String password;
     private String profileImgUrl;
+    // IANA zone id used to schedule the evening emails; null means the application default
+    private String timezone;
 
     @CreationTimestamp
     @Column(updatable = false)
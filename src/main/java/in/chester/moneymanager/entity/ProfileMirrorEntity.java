@@ -0,0 +1,28 @@
+package in.chester.moneymanager.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A profile whose directory row changed and has not been copied to its home shard yet.
+// Written in the same directory transaction as the change; removed once the copy succeeds.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "profile_mirror_outbox_tbl")
+public class ProfileMirrorEntity {
+
+    @Id
+    private Long profileId;
+
+    // last change queued; a copy only clears the row if no newer change arrived meanwhile
+    private LocalDateTime queuedAt;
+}
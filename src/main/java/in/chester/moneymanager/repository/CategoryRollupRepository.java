@@ -0,0 +1,61 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.dto.CategorySpendDTO;
+import in.chester.moneymanager.entity.CategoryRollupEntity;
+import in.chester.moneymanager.entity.CategoryRollupId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryRollupRepository extends JpaRepository<CategoryRollupEntity, CategoryRollupId> {
+
+    // returns 0 when the bucket has no row yet
+    @Modifying
+    @Query("UPDATE CategoryRollupEntity r SET r.amount = r.amount + :amountDelta, " +
+            "r.transactionCount = r.transactionCount + :countDelta, r.updatedAt = :now " +
+            "WHERE r.profileId = :profileId AND r.categoryId = :categoryId " +
+            "AND r.monthStart = :monthStart AND r.type = :type")
+    int applyDelta(@Param("profileId") Long profileId,
+                   @Param("categoryId") Long categoryId,
+                   @Param("monthStart") LocalDate monthStart,
+                   @Param("type") String type,
+                   @Param("amountDelta") BigDecimal amountDelta,
+                   @Param("countDelta") long countDelta,
+                   @Param("now") LocalDateTime now);
+
+    // no-op when the bucket exists or a concurrent transaction is inserting it
+    @Modifying
+    @Query("INSERT INTO CategoryRollupEntity (profileId, categoryId, monthStart, type, amount, transactionCount, updatedAt) " +
+            "VALUES (:profileId, :categoryId, :monthStart, :type, 0, 0, :now) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(@Param("profileId") Long profileId,
+                       @Param("categoryId") Long categoryId,
+                       @Param("monthStart") LocalDate monthStart,
+                       @Param("type") String type,
+                       @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<CategoryRollupEntity> findByProfileIdAndCategoryIdAndMonthStartAndType(Long profileId, Long categoryId,
+                                                                                    LocalDate monthStart, String type);
+
+    // locks existing rows so concurrent deltas wait for the rebuild to commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<CategoryRollupEntity> findByProfileIdIn(Collection<Long> profileIds);
+
+    @Query("SELECT new in.chester.moneymanager.dto.CategorySpendDTO(r.categoryId, c.name, c.icon, r.monthStart, r.amount, r.transactionCount) " +
+            "FROM CategoryRollupEntity r JOIN CategoryEntity c ON c.id = r.categoryId " +
+            "WHERE r.profileId = :profileId AND r.type = :type AND r.monthStart >= :fromMonth AND r.transactionCount > 0 " +
+            "ORDER BY r.monthStart, c.name")
+    List<CategorySpendDTO> findCategorySpend(@Param("profileId") Long profileId,
+                                             @Param("type") String type,
+                                             @Param("fromMonth") LocalDate fromMonth);
+}
@@ -0,0 +1,47 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.entity.EmailOutboxEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+    // rows locked by another node's claim are skipped rather than waited for
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<EmailOutboxEntity> findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+            Collection<EmailOutboxEntity.Status> statuses,
+            LocalDateTime now,
+            Pageable pageable
+    );
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutboxEntity m SET m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, " +
+            "m.lastError = :lastError, m.sentAt = :sentAt, m.updatedAt = :now WHERE m.id = :id")
+    int updateDeliveryState(@Param("id") Long id,
+                            @Param("status") EmailOutboxEntity.Status status,
+                            @Param("attempts") int attempts,
+                            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                            @Param("lastError") String lastError,
+                            @Param("sentAt") LocalDateTime sentAt,
+                            @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutboxEntity m WHERE m.status = :status AND m.updatedAt < :before")
+    int deleteByStatusAndUpdatedAtBefore(@Param("status") EmailOutboxEntity.Status status,
+                                         @Param("before") LocalDateTime before);
+}
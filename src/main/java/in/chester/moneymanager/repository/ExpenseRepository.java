@@ -1,24 +1,67 @@
 package in.chester.moneymanager.repository;
 
+import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.dto.LedgerTotalDTO;
+import in.chester.moneymanager.dto.RollupTotalDTO;
 import in.chester.moneymanager.entity.ExpenseEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ExpenseRepository extends JpaRepository<ExpenseEntity, Long> {
+public interface ExpenseRepository extends JpaRepository<ExpenseEntity, Long>, ExpenseRepositoryCustom {
 
     List<ExpenseEntity> findByProfileIdOrderByDateDesc(Long profileId);
 
-    List<ExpenseEntity> findTop5ByProfileIdOrderByDateDesc(Long profileId);
+    // read paths below project straight into DTOs, joining the category name in the same select
+    @Query("SELECT new in.chester.moneymanager.dto.ExpenseDTO(e.id, e.name, e.icon, c.name, c.id, e.amount, e.date, " +
+            "e.createdAt, e.updatedAt) FROM ExpenseEntity e JOIN e.category c " +
+            "WHERE e.profile.id = :profileId ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseDTO> findLatestDtos(@Param("profileId") Long profileId, Pageable pageable);
+
+    @Query("SELECT new in.chester.moneymanager.dto.ExpenseDTO(e.id, e.name, e.icon, c.name, c.id, e.amount, e.date, " +
+            "e.createdAt, e.updatedAt) FROM ExpenseEntity e JOIN e.category c " +
+            "WHERE e.profile.id = :profileId AND e.date BETWEEN :startDate AND :endDate")
+    List<ExpenseDTO> findDtosBetween(@Param("profileId") Long profileId,
+                                     @Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new in.chester.moneymanager.dto.ExpenseDTO(e.id, e.name, e.icon, c.name, c.id, e.amount, e.date, " +
+            "e.createdAt, e.updatedAt) FROM ExpenseEntity e JOIN e.category c " +
+            "WHERE e.profile.id = :profileId AND e.date = :date")
+    List<ExpenseDTO> findDtosOnDate(@Param("profileId") Long profileId, @Param("date") LocalDate date);
 
     @Query("SELECT SUM(e.amount) FROM ExpenseEntity e WHERE e.profile.id = :profileId")
     BigDecimal findTotalExpenseByProfileId(@Param("profileId") Long profileId);
 
+    @Query("SELECT new in.chester.moneymanager.dto.LedgerTotalDTO(e.profile.id, COALESCE(SUM(e.amount), 0), COUNT(e)) " +
+            "FROM ExpenseEntity e WHERE e.profile.id IN :profileIds GROUP BY e.profile.id")
+    List<LedgerTotalDTO> findTotalsByProfileIds(@Param("profileIds") Collection<Long> profileIds);
+
+    @Query("SELECT new in.chester.moneymanager.dto.RollupTotalDTO(e.profile.id, e.category.id, YEAR(e.date), MONTH(e.date), " +
+            "COALESCE(SUM(e.amount), 0), COUNT(e)) FROM ExpenseEntity e WHERE e.profile.id IN :profileIds " +
+            "GROUP BY e.profile.id, e.category.id, YEAR(e.date), MONTH(e.date)")
+    List<RollupTotalDTO> findMonthlyCategoryTotalsByProfileIds(@Param("profileIds") Collection<Long> profileIds);
+
+    @Query("SELECT new in.chester.moneymanager.dto.RollupTotalDTO(e.profile.id, e.category.id, YEAR(e.date), MONTH(e.date), " +
+            "COALESCE(SUM(e.amount), 0), COUNT(e)) FROM ExpenseEntity e " +
+            "WHERE e.profile.id = :profileId AND e.category.id = :categoryId AND e.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY e.profile.id, e.category.id, YEAR(e.date), MONTH(e.date)")
+    List<RollupTotalDTO> findMonthlyCategoryTotals(@Param("profileId") Long profileId,
+                                                   @Param("categoryId") Long categoryId,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
     List<ExpenseEntity> findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(
             Long profileId,
             LocalDate startDate,
@@ -27,10 +70,23 @@ public interface ExpenseRepository extends JpaRepository<ExpenseEntity, Long> {
             Sort sort
     );
 
-    // select * from expenses_tbl where profile_id = ? and date between = sd? and ed?
-    List<ExpenseEntity> findByProfileIdAndDateBetween(Long id, LocalDate startDate, LocalDate endDate);
+    // cursor-backed variant for streaming responses; must be consumed inside a transaction.
+    // namePattern comes from KeysetPageQuery.containsPattern so the keyword matches literally
+    @Query("SELECT new in.chester.moneymanager.dto.ExpenseDTO(e.id, e.name, e.icon, c.name, c.id, e.amount, e.date, " +
+            "e.createdAt, e.updatedAt) FROM ExpenseEntity e JOIN e.category c " +
+            "WHERE e.profile.id = :profileId AND e.date BETWEEN :startDate AND :endDate " +
+            "AND LOWER(e.name) LIKE :namePattern ESCAPE '\\'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ExpenseDTO> streamDtos(@Param("profileId") Long profileId,
+                                  @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate,
+                                  @Param("namePattern") String namePattern,
+                                  Sort sort);
 
-    // select * from expenses_tbl where profile_id = ? and date = ?
-    List<ExpenseEntity> findByProfileIdAndDate(Long profileId, LocalDate date);
+    // one day's expenses for a page of profiles, ordered so they come back grouped by profile
+    @Query("SELECT e FROM ExpenseEntity e JOIN FETCH e.category WHERE e.profile.id IN :profileIds AND e.date = :date " +
+            "ORDER BY e.profile.id, e.id")
+    List<ExpenseEntity> findByProfileIdInAndDateWithCategory(@Param("profileIds") Collection<Long> profileIds,
+                                                             @Param("date") LocalDate date);
 
 }
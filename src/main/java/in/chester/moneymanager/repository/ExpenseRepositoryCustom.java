@@ -0,0 +1,15 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.util.KeysetCursor;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ExpenseRepositoryCustom {
+
+    // one keyset page of the filter results, ordered by (sortField, id)
+    List<ExpenseDTO> findFilterPage(Long profileId, LocalDate startDate, LocalDate endDate, String keyword,
+                                    String sortField, Sort.Direction direction, KeysetCursor after, int limit);
+}
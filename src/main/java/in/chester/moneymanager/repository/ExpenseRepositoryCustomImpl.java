@@ -0,0 +1,24 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.entity.ExpenseEntity;
+import in.chester.moneymanager.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ExpenseDTO> findFilterPage(Long profileId, LocalDate startDate, LocalDate endDate, String keyword,
+                                           String sortField, Sort.Direction direction, KeysetCursor after, int limit) {
+        return KeysetPageQuery.find(entityManager, ExpenseEntity.class, ExpenseDTO.class, profileId, startDate, endDate,
+                keyword, sortField, direction, after, limit);
+    }
+}
@@ -1,24 +1,67 @@
 package in.chester.moneymanager.repository;
 
+import in.chester.moneymanager.dto.IncomeDTO;
+import in.chester.moneymanager.dto.LedgerTotalDTO;
+import in.chester.moneymanager.dto.RollupTotalDTO;
 import in.chester.moneymanager.entity.IncomeEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface IncomeRepository extends JpaRepository<IncomeEntity, Long> {
+public interface IncomeRepository extends JpaRepository<IncomeEntity, Long>, IncomeRepositoryCustom {
 
     List<IncomeEntity> findByProfileIdOrderByDateDesc(Long profileId);
 
-    List<IncomeEntity> findTop5ByProfileIdOrderByDateDesc(Long profileId);
+    // read paths below project straight into DTOs, joining the category name in the same select
+    @Query("SELECT new in.chester.moneymanager.dto.IncomeDTO(i.id, i.name, i.icon, c.name, c.id, i.amount, i.date, " +
+            "i.createdAt, i.updatedAt) FROM IncomeEntity i JOIN i.category c " +
+            "WHERE i.profile.id = :profileId ORDER BY i.date DESC, i.id DESC")
+    List<IncomeDTO> findLatestDtos(@Param("profileId") Long profileId, Pageable pageable);
+
+    @Query("SELECT new in.chester.moneymanager.dto.IncomeDTO(i.id, i.name, i.icon, c.name, c.id, i.amount, i.date, " +
+            "i.createdAt, i.updatedAt) FROM IncomeEntity i JOIN i.category c " +
+            "WHERE i.profile.id = :profileId AND i.date BETWEEN :startDate AND :endDate")
+    List<IncomeDTO> findDtosBetween(@Param("profileId") Long profileId,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new in.chester.moneymanager.dto.IncomeDTO(i.id, i.name, i.icon, c.name, c.id, i.amount, i.date, " +
+            "i.createdAt, i.updatedAt) FROM IncomeEntity i JOIN i.category c " +
+            "WHERE i.profile.id = :profileId AND i.date = :date")
+    List<IncomeDTO> findDtosOnDate(@Param("profileId") Long profileId, @Param("date") LocalDate date);
 
     @Query("SELECT SUM(i.amount) FROM IncomeEntity i WHERE i.profile.id = :profileId")
     BigDecimal findTotalExpenseByProfileId(@Param("profileId") Long profileId);
 
+    @Query("SELECT new in.chester.moneymanager.dto.LedgerTotalDTO(i.profile.id, COALESCE(SUM(i.amount), 0), COUNT(i)) " +
+            "FROM IncomeEntity i WHERE i.profile.id IN :profileIds GROUP BY i.profile.id")
+    List<LedgerTotalDTO> findTotalsByProfileIds(@Param("profileIds") Collection<Long> profileIds);
+
+    @Query("SELECT new in.chester.moneymanager.dto.RollupTotalDTO(i.profile.id, i.category.id, YEAR(i.date), MONTH(i.date), " +
+            "COALESCE(SUM(i.amount), 0), COUNT(i)) FROM IncomeEntity i WHERE i.profile.id IN :profileIds " +
+            "GROUP BY i.profile.id, i.category.id, YEAR(i.date), MONTH(i.date)")
+    List<RollupTotalDTO> findMonthlyCategoryTotalsByProfileIds(@Param("profileIds") Collection<Long> profileIds);
+
+    @Query("SELECT new in.chester.moneymanager.dto.RollupTotalDTO(i.profile.id, i.category.id, YEAR(i.date), MONTH(i.date), " +
+            "COALESCE(SUM(i.amount), 0), COUNT(i)) FROM IncomeEntity i " +
+            "WHERE i.profile.id = :profileId AND i.category.id = :categoryId AND i.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY i.profile.id, i.category.id, YEAR(i.date), MONTH(i.date)")
+    List<RollupTotalDTO> findMonthlyCategoryTotals(@Param("profileId") Long profileId,
+                                                   @Param("categoryId") Long categoryId,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
     List<IncomeEntity> findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(
             Long profileId,
             LocalDate startDate,
@@ -27,8 +70,17 @@ public interface IncomeRepository extends JpaRepository<IncomeEntity, Long> {
             Sort sort
     );
 
-    // select * from expenses_tbl where profile_id = ? and date between = sd? and ed?
-    List<IncomeEntity> findByProfileIdAndDateBetween(Long id, LocalDate startDate, LocalDate endDate);
+    // cursor-backed variant for streaming responses; must be consumed inside a transaction.
+    // namePattern comes from KeysetPageQuery.containsPattern so the keyword matches literally
+    @Query("SELECT new in.chester.moneymanager.dto.IncomeDTO(i.id, i.name, i.icon, c.name, c.id, i.amount, i.date, " +
+            "i.createdAt, i.updatedAt) FROM IncomeEntity i JOIN i.category c " +
+            "WHERE i.profile.id = :profileId AND i.date BETWEEN :startDate AND :endDate " +
+            "AND LOWER(i.name) LIKE :namePattern ESCAPE '\\'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<IncomeDTO> streamDtos(@Param("profileId") Long profileId,
+                                 @Param("startDate") LocalDate startDate,
+                                 @Param("endDate") LocalDate endDate,
+                                 @Param("namePattern") String namePattern,
+                                 Sort sort);
 
-    List<IncomeEntity> findByProfileIdAndDate(Long profileId, LocalDate date);
 }
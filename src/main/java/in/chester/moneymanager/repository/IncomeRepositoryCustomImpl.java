@@ -0,0 +1,24 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.dto.IncomeDTO;
+import in.chester.moneymanager.entity.IncomeEntity;
+import in.chester.moneymanager.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class IncomeRepositoryCustomImpl implements IncomeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<IncomeDTO> findFilterPage(Long profileId, LocalDate startDate, LocalDate endDate, String keyword,
+                                          String sortField, Sort.Direction direction, KeysetCursor after, int limit) {
+        return KeysetPageQuery.find(entityManager, IncomeEntity.class, IncomeDTO.class, profileId, startDate, endDate,
+                keyword, sortField, direction, after, limit);
+    }
+}
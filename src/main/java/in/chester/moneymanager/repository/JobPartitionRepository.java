@@ -0,0 +1,58 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.entity.JobPartitionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface JobPartitionRepository extends JpaRepository<JobPartitionEntity, Long> {
+
+    boolean existsByJobNameAndRunKey(String jobName, String runKey);
+
+    // partitions nobody holds: never started, or their owner's lease ran out
+    @Query("SELECT p FROM JobPartitionEntity p WHERE p.jobName = :jobName AND p.runKey = :runKey AND " +
+            "(p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.PENDING OR (p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.RUNNING AND p.leaseUntil < :now)) ORDER BY p.partitionNo")
+    List<JobPartitionEntity> findClaimable(@Param("jobName") String jobName,
+                                           @Param("runKey") String runKey,
+                                           @Param("now") LocalDateTime now);
+
+    @Query("SELECT p FROM JobPartitionEntity p WHERE p.createdAt > :since AND " +
+            "(p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.PENDING OR (p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.RUNNING AND p.leaseUntil < :now))")
+    List<JobPartitionEntity> findClaimableSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    // compare-and-set claim: only one node sees 1 updated row
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobPartitionEntity p SET p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.RUNNING, p.owner = :owner, p.leaseUntil = :leaseUntil, p.updatedAt = :now " +
+            "WHERE p.id = :id AND (p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.PENDING OR (p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.RUNNING AND p.leaseUntil < :now))")
+    int claim(@Param("id") Long id,
+              @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobPartitionEntity p SET p.checkpointId = :checkpointId, p.leaseUntil = :leaseUntil, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.owner = :owner AND p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.RUNNING")
+    int checkpoint(@Param("id") Long id,
+                   @Param("owner") String owner,
+                   @Param("checkpointId") Long checkpointId,
+                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                   @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobPartitionEntity p SET p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.DONE, p.leaseUntil = NULL, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.owner = :owner AND p.status = in.chester.moneymanager.entity.JobPartitionEntity.Status.RUNNING")
+    int complete(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JobPartitionEntity p WHERE p.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
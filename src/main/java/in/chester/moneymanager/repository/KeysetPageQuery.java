@@ -0,0 +1,87 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+// Builds the keyset (seek) query shared by the expense and income filter pages.
+// Rows are ordered by (sort field, id) so every page boundary is unambiguous,
+// and the next page starts strictly after the last (value, id) pair seen.
+// Rows are projected straight into the DTO, so nothing is hydrated or managed.
+public final class KeysetPageQuery {
+
+    public static final Set<String> SORT_FIELDS = Set.of("date", "amount", "name");
+
+    private KeysetPageQuery() {
+    }
+
+    public static <T> List<T> find(EntityManager entityManager, Class<?> entityClass, Class<T> dtoClass,
+                                   Long profileId, LocalDate startDate, LocalDate endDate, String keyword,
+                                   String sortField, Sort.Direction direction, KeysetCursor after, int limit) {
+        String sortExpression = sortExpression(sortField);
+        String order = direction.isAscending() ? "ASC" : "DESC";
+        String comparison = direction.isAscending() ? ">" : "<";
+
+        StringBuilder jpql = new StringBuilder()
+                .append("SELECT new ").append(dtoClass.getName())
+                .append("(t.id, t.name, t.icon, c.name, c.id, t.amount, t.date, t.createdAt, t.updatedAt) ")
+                .append("FROM ").append(entityClass.getSimpleName()).append(" t JOIN t.category c ")
+                .append("WHERE t.profile.id = :profileId AND t.date BETWEEN :startDate AND :endDate ")
+                .append("AND LOWER(t.name) LIKE :keyword ESCAPE '\\' ");
+        if (after != null) {
+            jpql.append("AND (").append(sortExpression).append(' ').append(comparison).append(" :lastValue OR (")
+                    .append(sortExpression).append(" = :lastValue AND t.id ").append(comparison).append(" :lastId)) ");
+        }
+        jpql.append("ORDER BY ").append(sortExpression).append(' ').append(order)
+                .append(", t.id ").append(order);
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), dtoClass)
+                .setParameter("profileId", profileId)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .setParameter("keyword", containsPattern(keyword))
+                .setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("lastValue", after.sortValue())
+                    .setParameter("lastId", after.getId());
+        }
+        return query.getResultList();
+    }
+
+    // Lower-cased LIKE pattern matching the keyword anywhere, with wildcards escaped by '\'
+    public static String containsPattern(String keyword) {
+        return "%" + escapeLike(keyword.toLowerCase()) + "%";
+    }
+
+    // Cursor pointing just after a row, built from the row's sortable columns
+    public static KeysetCursor cursorAfter(String sortField, Sort.Direction direction, Long id,
+                                           LocalDate date, BigDecimal amount, String name) {
+        String value = switch (sortField) {
+            case "date" -> date.toString();
+            case "amount" -> (amount != null ? amount : BigDecimal.ZERO).toPlainString();
+            case "name" -> name;
+            default -> throw new IllegalArgumentException("Invalid sortField: " + sortField);
+        };
+        return new KeysetCursor(sortField, direction, value, id);
+    }
+
+    private static String sortExpression(String sortField) {
+        return switch (sortField) {
+            case "date" -> "t.date";
+            // null amounts sort as zero so the seek predicate never compares against null
+            case "amount" -> "COALESCE(t.amount, 0)";
+            case "name" -> "t.name";
+            default -> throw new IllegalArgumentException("Invalid sortField: " + sortField);
+        };
+    }
+
+    private static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
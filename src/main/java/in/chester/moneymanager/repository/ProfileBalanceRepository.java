@@ -0,0 +1,40 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.entity.ProfileBalanceEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProfileBalanceRepository extends JpaRepository<ProfileBalanceEntity, Long> {
+
+    // returns 0 when the profile has no balance row yet
+    @Modifying
+    @Query("UPDATE ProfileBalanceEntity b SET " +
+            "b.totalIncome = b.totalIncome + :incomeDelta, b.incomeCount = b.incomeCount + :incomeCountDelta, " +
+            "b.totalExpense = b.totalExpense + :expenseDelta, b.expenseCount = b.expenseCount + :expenseCountDelta, " +
+            "b.updatedAt = :now WHERE b.profileId = :profileId")
+    int applyDelta(@Param("profileId") Long profileId,
+                   @Param("incomeDelta") BigDecimal incomeDelta,
+                   @Param("incomeCountDelta") long incomeCountDelta,
+                   @Param("expenseDelta") BigDecimal expenseDelta,
+                   @Param("expenseCountDelta") long expenseCountDelta,
+                   @Param("now") LocalDateTime now);
+
+    // no-op when the row exists or a concurrent transaction is inserting it
+    @Modifying
+    @Query("INSERT INTO ProfileBalanceEntity (profileId, totalIncome, incomeCount, totalExpense, expenseCount, updatedAt) " +
+            "VALUES (:profileId, 0, 0, 0, 0, :now) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(@Param("profileId") Long profileId, @Param("now") LocalDateTime now);
+
+    // locks existing rows so concurrent deltas wait for the reconciliation to commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ProfileBalanceEntity> findByProfileIdIn(Collection<Long> profileIds);
+}
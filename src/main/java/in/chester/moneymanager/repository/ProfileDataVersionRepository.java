@@ -0,0 +1,35 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.entity.ProfileDataVersionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ProfileDataVersionRepository extends JpaRepository<ProfileDataVersionEntity, Long> {
+
+    // returns 0 when the profile has no version row yet
+    @Modifying
+    @Query("UPDATE ProfileDataVersionEntity v SET v.version = v.version + 1, v.updatedAt = :now " +
+            "WHERE v.profileId = :profileId")
+    int increment(@Param("profileId") Long profileId, @Param("now") LocalDateTime now);
+
+    // returns 0 when the version is no longer the one the caller read
+    @Modifying
+    @Query("UPDATE ProfileDataVersionEntity v SET v.version = v.version + 1, v.updatedAt = :now " +
+            "WHERE v.profileId = :profileId AND v.version = :readVersion")
+    int incrementFrom(@Param("profileId") Long profileId, @Param("readVersion") long readVersion,
+                      @Param("now") LocalDateTime now);
+
+    // no-op when the row exists or a concurrent transaction is inserting it
+    @Modifying
+    @Query("INSERT INTO ProfileDataVersionEntity (profileId, version, updatedAt) VALUES (:profileId, :version, :now) " +
+            "ON CONFLICT DO NOTHING")
+    int insertIfAbsent(@Param("profileId") Long profileId, @Param("version") long version, @Param("now") LocalDateTime now);
+
+    @Query("SELECT v.version FROM ProfileDataVersionEntity v WHERE v.profileId = :profileId")
+    Optional<Long> findVersion(@Param("profileId") Long profileId);
+}
@@ -0,0 +1,31 @@
+package in.chester.moneymanager.repository;
+
+import in.chester.moneymanager.entity.ProfileMirrorEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProfileMirrorRepository extends JpaRepository<ProfileMirrorEntity, Long> {
+
+    // returns 0 when the profile has nothing queued yet
+    @Modifying
+    @Query("UPDATE ProfileMirrorEntity m SET m.queuedAt = :now WHERE m.profileId = :profileId")
+    int touch(@Param("profileId") Long profileId, @Param("now") LocalDateTime now);
+
+    // no-op when the row exists or a concurrent transaction is inserting it
+    @Modifying
+    @Query("INSERT INTO ProfileMirrorEntity (profileId, queuedAt) VALUES (:profileId, :now) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(@Param("profileId") Long profileId, @Param("now") LocalDateTime now);
+
+    List<ProfileMirrorEntity> findByQueuedAtBeforeOrderByQueuedAt(LocalDateTime before, Pageable pageable);
+
+    // leaves the row when a newer change was queued after the copy read the profile
+    @Modifying
+    @Query("DELETE FROM ProfileMirrorEntity m WHERE m.profileId = :profileId AND m.queuedAt = :queuedAt")
+    int deleteCopied(@Param("profileId") Long profileId, @Param("queuedAt") LocalDateTime queuedAt);
+}
@@ -1,8 +1,13 @@
 package in.chester.moneymanager.repository;
 
+import in.chester.moneymanager.dto.DashboardTotalsDTO;
 import in.chester.moneymanager.entity.ProfileEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ProfileRepository extends JpaRepository<ProfileEntity, Long> {
@@ -10,4 +15,32 @@ public interface ProfileRepository extends JpaRepository<ProfileEntity, Long> {
     Optional<ProfileEntity> findByEmail(String email);
 
     Optional<ProfileEntity> findByActivationToken(String activationToken);
+
+    // keyset paging over profile ids for batch jobs
+    @Query("SELECT p.id FROM ProfileEntity p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // keyset page of one timezone's profiles in one schedule slot (id mod slots) within a job partition
+    @Query("SELECT p FROM ProfileEntity p WHERE p.id > :afterId AND p.id <= :toId " +
+            "AND COALESCE(p.timezone, :defaultZone) = :zone AND MOD(p.id, :slots) = :slot ORDER BY p.id")
+    List<ProfileEntity> findSlotPage(@Param("afterId") Long afterId,
+                                     @Param("toId") Long toId,
+                                     @Param("zone") String zone,
+                                     @Param("defaultZone") String defaultZone,
+                                     @Param("slots") int slots,
+                                     @Param("slot") int slot,
+                                     Pageable pageable);
+
+    @Query("SELECT DISTINCT COALESCE(p.timezone, :defaultZone) FROM ProfileEntity p")
+    List<String> findDistinctTimezones(@Param("defaultZone") String defaultZone);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM ProfileEntity p")
+    Long findMaxId();
+
+    // income and expense totals for the dashboard in a single round trip
+    @Query("SELECT new in.chester.moneymanager.dto.DashboardTotalsDTO(" +
+            "(SELECT COALESCE(SUM(i.amount), 0) FROM IncomeEntity i WHERE i.profile.id = p.id), " +
+            "(SELECT COALESCE(SUM(e.amount), 0) FROM ExpenseEntity e WHERE e.profile.id = p.id)) " +
+            "FROM ProfileEntity p WHERE p.id = :profileId")
+    DashboardTotalsDTO findDashboardTotalsByProfileId(@Param("profileId") Long profileId);
 }
@@ -0,0 +1,34 @@
+package in.chester.moneymanager.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+// Immutable snapshot of a profile that is stored in the security context,
+// so services can read the profile id without going back to the database.
+@Getter
+@Builder
+@AllArgsConstructor
+public class AppUserPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String fullName;
+    private final String email;
+    private final String password;
+    private final boolean active;
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,55 @@
+package in.chester.moneymanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.chester.moneymanager.entity.ProfileEntity;
+import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.util.ShardContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Size- and TTL-bounded cache of authenticated principals keyed by email.
+// Anything that changes a profile must call evict() so the next request reloads it.
+@Component
+public class ProfileCache {
+
+    private final ProfileRepository profileRepository;
+    private final Cache<String, AppUserPrincipal> cache;
+
+    public ProfileCache(ProfileRepository profileRepository,
+                        @Value("${app.profile-cache.max-size:10000}") long maxSize,
+                        @Value("${app.profile-cache.ttl:10m}") Duration ttl) {
+        this.profileRepository = profileRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // unknown emails are not cached, so a later registration is picked up immediately;
+    // loads go to the directory, which holds every profile when the data is sharded
+    public Optional<AppUserPrincipal> find(String email) {
+        return Optional.ofNullable(cache.get(email, key -> ShardContext.callOn(null, () -> profileRepository.findByEmail(key))
+                .map(ProfileCache::toPrincipal)
+                .orElse(null)));
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    private static AppUserPrincipal toPrincipal(ProfileEntity profile) {
+        return AppUserPrincipal.builder()
+                .id(profile.getId())
+                .fullName(profile.getFullName())
+                .email(profile.getEmail())
+                .password(profile.getPassword())
+                .active(Boolean.TRUE.equals(profile.getIsActive()))
+                .build();
+    }
+}
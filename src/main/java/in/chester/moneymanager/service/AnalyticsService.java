@@ -0,0 +1,29 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.dto.CategorySpendDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private static final int MAX_MONTHS = 24;
+
+    private final CategoryRollupService categoryRollupService;
+    private final ProfileService profileService;
+
+    // Served entirely from the rollup table
+    public List<CategorySpendDTO> getCategorySpendForCurrentUser(String type, int months) {
+        if (!CategoryRollupService.TYPE_INCOME.equals(type) && !CategoryRollupService.TYPE_EXPENSE.equals(type)) {
+            throw new IllegalArgumentException("Invalid type. Must be 'income' or 'expense'.");
+        }
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_MONTHS);
+        }
+        Long profileId = profileService.getCurrentProfileId();
+        return categoryRollupService.getCategorySpend(profileId, type, months);
+    }
+}
@@ -0,0 +1,104 @@
+package in.chester.moneymanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.chester.moneymanager.dto.CategoryDTO;
+import in.chester.moneymanager.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+// Size- and TTL-bounded cache of each profile's categories, loaded whole on first access.
+// Lists are tagged with the profile's data version (see DataVersionService) and reloaded once the caller reads
+// a newer one, so a change made through another instance is picked up on its next request there.
+// Anything that changes a profile's categories must still call evict() and bump the data version;
+// cached DTOs are shared, so treat them as read-only.
+@Component
+public class CategoryCache {
+
+    private record Entry(long version, List<CategoryDTO> categories) {
+    }
+
+    private final CategoryRepository categoryRepository;
+    private final Cache<Long, Entry> cache;
+
+    public CategoryCache(CategoryRepository categoryRepository,
+                         @Value("${app.category-cache.max-size:10000}") long maxSize,
+                         @Value("${app.category-cache.ttl:30m}") Duration ttl) {
+        this.categoryRepository = categoryRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // version is the profile's data version as read by the caller, before it reads the categories
+    public List<CategoryDTO> findAll(Long profileId, long version) {
+        Entry entry = cache.getIfPresent(profileId);
+        if (entry == null || entry.version() != version) {
+            entry = new Entry(version, load(profileId));
+            cache.put(profileId, entry);
+        }
+        return entry.categories();
+    }
+
+    public List<CategoryDTO> findByType(Long profileId, String type, long version) {
+        return findAll(profileId, version).stream()
+                .filter(category -> Objects.equals(category.getType(), type))
+                .toList();
+    }
+
+    // Served from the list for the caller's data version, so a category deleted through another instance is not
+    // trusted; one missing from it, e.g. created since that version was read, is looked up directly.
+    // Empty when the category does not exist or belongs to another profile
+    public Optional<CategoryDTO> findOwned(Long profileId, Long categoryId, long version) {
+        Optional<CategoryDTO> cached = findAll(profileId, version).stream()
+                .filter(category -> category.getId().equals(categoryId))
+                .findFirst();
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return categoryRepository.findByIdAndProfileId(categoryId, profileId).map(CategoryService::convertToDTO);
+    }
+
+    private List<CategoryDTO> load(Long profileId) {
+        return categoryRepository.findByProfileId(profileId).stream()
+                .map(CategoryService::convertToDTO)
+                .toList();
+    }
+
+    // For a change that left the profile's categories alone and took its data version from one to the next:
+    // once it commits, a list cached at the old version is kept for the new one instead of being reloaded
+    public void advance(Long profileId, long fromVersion, long toVersion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.asMap().computeIfPresent(profileId, (id, entry) ->
+                        entry.version() == fromVersion ? new Entry(toVersion, entry.categories()) : entry);
+            }
+        });
+    }
+
+    // Drops the entry now and again once the surrounding transaction commits, so a read that
+    // reloads it in between cannot pin the pre-commit state
+    public void evict(Long profileId) {
+        cache.invalidate(profileId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(profileId);
+                }
+            });
+        }
+    }
+}
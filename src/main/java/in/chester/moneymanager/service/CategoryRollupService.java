@@ -0,0 +1,154 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.dto.CategorySpendDTO;
+import in.chester.moneymanager.dto.RollupTotalDTO;
+import in.chester.moneymanager.entity.CategoryRollupEntity;
+import in.chester.moneymanager.entity.CategoryRollupId;
+import in.chester.moneymanager.repository.CategoryRollupRepository;
+import in.chester.moneymanager.repository.ExpenseRepository;
+import in.chester.moneymanager.repository.IncomeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Per-category monthly totals (category_rollups_tbl) behind the category spend charts.
+// A bucket is keyed by profile, category, month and type and is created by its first
+// transaction, seeded from that month's ledger rows; the nightly rebuild also zeroes
+// buckets whose rows were all deleted rather than removing them.
+@Service
+public class CategoryRollupService {
+
+    public static final String TYPE_INCOME = "income";
+    public static final String TYPE_EXPENSE = "expense";
+
+    private final CategoryRollupRepository categoryRollupRepository;
+    private final IncomeRepository incomeRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ShardDirectory shardDirectory;
+
+    @Value("${app.rollup.rebuild.page-size:200}")
+    private int rebuildPageSize;
+
+    public CategoryRollupService(CategoryRollupRepository categoryRollupRepository,
+                                 IncomeRepository incomeRepository,
+                                 ExpenseRepository expenseRepository,
+                                 ShardDirectory shardDirectory) {
+        this.categoryRollupRepository = categoryRollupRepository;
+        this.incomeRepository = incomeRepository;
+        this.expenseRepository = expenseRepository;
+        this.shardDirectory = shardDirectory;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String type, Long profileId, Long categoryId, LocalDate date, BigDecimal amount) {
+        applyDelta(type, profileId, categoryId, date, orZero(amount), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reverse(String type, Long profileId, Long categoryId, LocalDate date, BigDecimal amount) {
+        applyDelta(type, profileId, categoryId, date, orZero(amount).negate(), -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDelta(String type, Long profileId, Long categoryId, LocalDate date,
+                           BigDecimal amountDelta, long countDelta) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        int updated = categoryRollupRepository.applyDelta(profileId, categoryId, monthStart, type,
+                amountDelta, countDelta, LocalDateTime.now());
+        if (updated == 0) {
+            // first write for this bucket: seed it from the ledger, which already includes this change
+            seedBucket(type, profileId, categoryId, monthStart);
+        }
+    }
+
+    // Spend per category and month for the last N months, current month included
+    @Transactional(readOnly = true)
+    public List<CategorySpendDTO> getCategorySpend(Long profileId, String type, int months) {
+        LocalDate fromMonth = LocalDate.now().withDayOfMonth(1).minusMonths(months - 1L);
+        return categoryRollupRepository.findCategorySpend(profileId, type, fromMonth);
+    }
+
+    @Scheduled(cron = "${app.rollup.rebuild.cron:0 45 3 * * *}")
+    public void rebuildAll() {
+        shardDirectory.forEachProfilePage("rebuildAll()", rebuildPageSize, this::rebuild);
+    }
+
+    private void rebuild(List<Long> profileIds) {
+        // lock first so deltas committed after this point are applied on top of the rebuilt rows
+        Map<CategoryRollupId, CategoryRollupEntity> rollups = new HashMap<>();
+        for (CategoryRollupEntity rollup : categoryRollupRepository.findByProfileIdIn(profileIds)) {
+            rollups.put(idOf(rollup), rollup);
+        }
+        Set<CategoryRollupId> locked = new HashSet<>(rollups.keySet());
+        // buckets that no longer have any rows are zeroed rather than deleted, so a waiting delta still finds them
+        rollups.values().forEach(rollup -> {
+            rollup.setAmount(BigDecimal.ZERO);
+            rollup.setTransactionCount(0L);
+        });
+        mergeTotals(rollups, TYPE_INCOME, incomeRepository.findMonthlyCategoryTotalsByProfileIds(profileIds));
+        mergeTotals(rollups, TYPE_EXPENSE, expenseRepository.findMonthlyCategoryTotalsByProfileIds(profileIds));
+        LocalDateTime now = LocalDateTime.now();
+        List<CategoryRollupEntity> existing = rollups.values().stream()
+                .filter(rollup -> locked.contains(idOf(rollup)))
+                .toList();
+        existing.forEach(rollup -> rollup.setUpdatedAt(now));
+        categoryRollupRepository.saveAll(existing);
+        // buckets without a row yet are seeded the way a first write seeds them, so the two cannot race on the insert
+        rollups.keySet().stream()
+                .filter(id -> !locked.contains(id))
+                .forEach(id -> seedBucket(id.getType(), id.getProfileId(), id.getCategoryId(), id.getMonthStart()));
+    }
+
+    private void seedBucket(String type, Long profileId, Long categoryId, LocalDate monthStart) {
+        LocalDateTime now = LocalDateTime.now();
+        // two first writes may race here; the insert skips an existing row and the lock
+        // makes the loser read the ledger only after the winner has committed
+        categoryRollupRepository.insertIfAbsent(profileId, categoryId, monthStart, type, now);
+        CategoryRollupEntity rollup = categoryRollupRepository
+                .findByProfileIdAndCategoryIdAndMonthStartAndType(profileId, categoryId, monthStart, type)
+                .orElseThrow();
+        LocalDate monthEnd = monthStart.withDayOfMonth(monthStart.lengthOfMonth());
+        List<RollupTotalDTO> totals = TYPE_INCOME.equals(type)
+                ? incomeRepository.findMonthlyCategoryTotals(profileId, categoryId, monthStart, monthEnd)
+                : expenseRepository.findMonthlyCategoryTotals(profileId, categoryId, monthStart, monthEnd);
+        RollupTotalDTO total = totals.isEmpty() ? null : totals.get(0);
+        rollup.setAmount(total != null ? total.getTotal() : BigDecimal.ZERO);
+        rollup.setTransactionCount(total != null ? total.getCount() : 0L);
+        rollup.setUpdatedAt(now);
+        categoryRollupRepository.save(rollup);
+    }
+
+    private static void mergeTotals(Map<CategoryRollupId, CategoryRollupEntity> rollups, String type, List<RollupTotalDTO> totals) {
+        for (RollupTotalDTO total : totals) {
+            LocalDate monthStart = LocalDate.of(total.getYear(), total.getMonth(), 1);
+            CategoryRollupId id = new CategoryRollupId(total.getProfileId(), total.getCategoryId(), monthStart, type);
+            CategoryRollupEntity rollup = rollups.computeIfAbsent(id, key -> CategoryRollupEntity.builder()
+                    .profileId(key.getProfileId())
+                    .categoryId(key.getCategoryId())
+                    .monthStart(key.getMonthStart())
+                    .type(key.getType())
+                    .build());
+            rollup.setAmount(total.getTotal());
+            rollup.setTransactionCount(total.getCount());
+        }
+    }
+
+    private static CategoryRollupId idOf(CategoryRollupEntity rollup) {
+        return new CategoryRollupId(rollup.getProfileId(), rollup.getCategoryId(), rollup.getMonthStart(), rollup.getType());
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
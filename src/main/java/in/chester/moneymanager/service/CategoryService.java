@@ -7,6 +7,7 @@ import in.chester.moneymanager.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -17,43 +18,43 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProfileService profileService;
+    private final CategoryCache categoryCache;
+    private final DataVersionService dataVersionService;
 
     // save category
+    @Transactional
     public CategoryDTO saveCategory(CategoryDTO categoryDTO) {
-        ProfileEntity profile = profileService.getCurrentProfile();
+        ProfileEntity profile = profileService.getCurrentProfileReference();
         if (categoryRepository.existsByNameAndProfileId(categoryDTO.getName(), profile.getId())) {
             throw new RuntimeException("Category with this name already exists");
         }
         CategoryEntity newCategory = convertToEntity(categoryDTO, profile);
         newCategory = categoryRepository.save(newCategory);
+        categoryCache.evict(profile.getId());
+        dataVersionService.bump(profile.getId());
         return convertToDTO(newCategory);
     }
 
-    // get categories for current user
-    public List<CategoryDTO> getCategoriesForCurrentUser() {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<CategoryEntity> categories = categoryRepository.findByProfileId(profile.getId());
-        return categories.stream()
-                .map(this::convertToDTO)
-                .toList();
+    // get categories for current user, from the category cache as of the given data version
+    public List<CategoryDTO> getCategoriesForCurrentUser(long version) {
+        Long profileId = profileService.getCurrentProfileId();
+        return categoryCache.findAll(profileId, version);
     }
 
-    // get categories by type for current user
-    public List<CategoryDTO> getCategoriesByTypeForCurrentUser(String type) {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<CategoryEntity> categories = categoryRepository.findByTypeAndProfileId(type, profile.getId());
-        return categories.stream()
-                .map(this::convertToDTO)
-                .toList();
+    // get categories by type for current user, from the category cache as of the given data version
+    public List<CategoryDTO> getCategoriesByTypeForCurrentUser(String type, long version) {
+        Long profileId = profileService.getCurrentProfileId();
+        return categoryCache.findByType(profileId, type, version);
     }
 
+    @Transactional
     public CategoryDTO updateCategory(Long categoryId, CategoryDTO categoryDTO) {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        CategoryEntity existingCategory = categoryRepository.findByIdAndProfileId(categoryId, profile.getId())
+        Long profileId = profileService.getCurrentProfileId();
+        CategoryEntity existingCategory = categoryRepository.findByIdAndProfileId(categoryId, profileId)
                 .orElseThrow(() -> new RuntimeException("Category not found or accessible"));
 
         if (!existingCategory.getName().equals(categoryDTO.getName()) &&
-                categoryRepository.existsByNameAndProfileId(categoryDTO.getName(), profile.getId())) {
+                categoryRepository.existsByNameAndProfileId(categoryDTO.getName(), profileId)) {
             throw new RuntimeException("Category with this name already exists");
         }
 
@@ -61,14 +62,19 @@ public class CategoryService {
         existingCategory.setIcon(categoryDTO.getIcon());
         existingCategory.setType(categoryDTO.getType());
         existingCategory = categoryRepository.save(existingCategory);
+        categoryCache.evict(profileId);
+        dataVersionService.bump(profileId);
         return convertToDTO(existingCategory);
     }
 
+    @Transactional
     public void deleteCategory(Long categoryId) {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        CategoryEntity existingCategory = categoryRepository.findByIdAndProfileId(categoryId, profile.getId())
+        Long profileId = profileService.getCurrentProfileId();
+        CategoryEntity existingCategory = categoryRepository.findByIdAndProfileId(categoryId, profileId)
                 .orElseThrow(() -> new RuntimeException("Category not found or accessible"));
         categoryRepository.delete(existingCategory);
+        categoryCache.evict(profileId);
+        dataVersionService.bump(profileId);
     }
 
     //helper methods
@@ -82,7 +88,7 @@ public class CategoryService {
     }
 
     //helper methods
-    private CategoryDTO convertToDTO(CategoryEntity categoryEntity) {
+    static CategoryDTO convertToDTO(CategoryEntity categoryEntity) {
         return CategoryDTO.builder()
                 .id(categoryEntity.getId())
                 .profileId(categoryEntity.getProfile() != null ? categoryEntity.getProfile().getId() : null)
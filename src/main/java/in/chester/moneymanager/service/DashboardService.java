@@ -1,11 +1,12 @@
 package in.chester.moneymanager.service;
 
+import in.chester.moneymanager.dto.DashboardTotalsDTO;
 import in.chester.moneymanager.dto.ExpenseDTO;
 import in.chester.moneymanager.dto.IncomeDTO;
 import in.chester.moneymanager.dto.RecentTransactionDTO;
-import in.chester.moneymanager.entity.ProfileEntity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -21,16 +22,34 @@ public class DashboardService {
     private final IncomeService incomeService;
     private final ExpenseService expenseService;
     private final ProfileService profileService;
+    private final ProfileBalanceService profileBalanceService;
 
+    // Resolves the profile once and reads everything by id: one balance row
+    // and one query per recent list, whatever the ledger size. The read-only
+    // transaction keeps all of it on one connection with flushing switched off.
+    @Transactional(readOnly = true)
     public Map<String, Object> getDashboardData() {
-        ProfileEntity profile = profileService.getCurrentProfile();
+        Long profileId = profileService.getCurrentProfileId();
         Map<String, Object> returnValue = new LinkedHashMap<>();
-        List<IncomeDTO> latest5Incomes =  incomeService.getLatest5IncomesForCurrentUser();
-        List<ExpenseDTO> latest5Expenses = expenseService.getLatest5ExpensesForCurrentUser();
-        List<RecentTransactionDTO> recentTransaction = concat(latest5Incomes.stream().map(income ->
+        DashboardTotalsDTO totals = profileBalanceService.getTotals(profileId);
+        List<IncomeDTO> latest5Incomes =  incomeService.getLatest5IncomesForProfile(profileId);
+        List<ExpenseDTO> latest5Expenses = expenseService.getLatest5ExpensesForProfile(profileId);
+        List<RecentTransactionDTO> recentTransaction = mergeRecentTransactions(profileId, latest5Incomes, latest5Expenses);
+        returnValue.put("totalBalance", totals.getTotalBalance());
+        returnValue.put("totalIncome", totals.getTotalIncome());
+        returnValue.put("totalExpense", totals.getTotalExpense());
+        returnValue.put("recent5Expenses", latest5Expenses);
+        returnValue.put("recent5Incomes", latest5Incomes);
+        returnValue.put("recentTransactions", recentTransaction);
+        return returnValue;
+    }
+
+    // newest first across both lists; same-day entries by creation time
+    static List<RecentTransactionDTO> mergeRecentTransactions(Long profileId, List<IncomeDTO> incomes, List<ExpenseDTO> expenses) {
+        return concat(incomes.stream().map(income ->
                 RecentTransactionDTO.builder()
                         .id(income.getId())
-                        .profileId(profile.getId())
+                        .profileId(profileId)
                         .icon(income.getIcon())
                         .name(income.getName())
                         .amount(income.getAmount())
@@ -39,9 +58,9 @@ public class DashboardService {
                         .updatedAt(income.getUpdatedAt())
                         .type("income")
                         .build()),
-                latest5Expenses.stream().map(expense -> RecentTransactionDTO.builder()
+                expenses.stream().map(expense -> RecentTransactionDTO.builder()
                         .id(expense.getId())
-                        .profileId(profile.getId())
+                        .profileId(profileId)
                         .icon(expense.getIcon())
                         .name(expense.getName())
                         .amount(expense.getAmount())
@@ -57,13 +76,5 @@ public class DashboardService {
                     }
                     return cmp;
                 }).collect(Collectors.toList());
-        returnValue.put("totalBalance", incomeService.getTotalIncomesForCurrentUser()
-                .subtract(expenseService.getTotalExpensesForCurrentUser()));
-        returnValue.put("totalIncome", incomeService.getTotalIncomesForCurrentUser());
-        returnValue.put("totalExpense", expenseService.getTotalExpensesForCurrentUser());
-        returnValue.put("recent5Expenses", latest5Expenses);
-        returnValue.put("recent5Incomes", latest5Incomes);
-        returnValue.put("recentTransactions", recentTransaction);
-        return returnValue;
     }
 }
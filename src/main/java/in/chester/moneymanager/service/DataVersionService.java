@@ -0,0 +1,74 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.repository.ProfileDataVersionRepository;
+import in.chester.moneymanager.util.ReadYourWrites;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Maintains profile_data_versions_tbl. bump() runs inside the mutating transaction, so a
+// version is only visible together with the change that produced it.
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final ProfileDataVersionRepository profileDataVersionRepository;
+    private final ProfileService profileService;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bump(Long profileId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (profileDataVersionRepository.increment(profileId, now) == 0) {
+            // first change for this profile; concurrent first writers all insert-if-absent, then increment in turn
+            profileDataVersionRepository.insertIfAbsent(profileId, 0L, now);
+            profileDataVersionRepository.increment(profileId, now);
+        }
+        // the caller's next reads stay on the primary until the replica has had time to catch up
+        ReadYourWrites.afterCommit();
+    }
+
+    // bump() for a caller that read the version earlier in its transaction. True when nothing else changed
+    // the profile in between, so the new version is readVersion + 1
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean bumpFrom(Long profileId, long readVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        // version 0 means there was no row yet; a first writer that loses the insert race falls back to bump()
+        int updated = readVersion == 0
+                ? profileDataVersionRepository.insertIfAbsent(profileId, 1L, now)
+                : profileDataVersionRepository.incrementFrom(profileId, readVersion, now);
+        if (updated == 1) {
+            ReadYourWrites.afterCommit();
+            return true;
+        }
+        bump(profileId);
+        return false;
+    }
+
+    // Primary-key read; 0 for profiles that have never changed anything
+    @Transactional(readOnly = true)
+    public long currentVersion(Long profileId) {
+        return profileDataVersionRepository.findVersion(profileId).orElse(0L);
+    }
+
+    // Strong ETag for a view of the caller's data; the view key tells apart responses that depend
+    // on something besides the data, such as the current month.
+    // Read before the data, so a change landing in between only costs the client one extra full response.
+    @Transactional(readOnly = true)
+    public String etagForCurrentUser(String view) {
+        return etagForCurrentUser(currentVersion(profileService.getCurrentProfileId()), view);
+    }
+
+    // For responses served from a version-tagged cache: read the version once, build the ETag from it
+    // and hand the same version to the cache, so the body is never older than the ETag
+    public String etagForCurrentUser(long version, String view) {
+        return "\"" + profileService.getCurrentProfileId() + "-" + version + "-" + view + "\"";
+    }
+
+    @Transactional(readOnly = true)
+    public long currentVersionForCurrentUser() {
+        return currentVersion(profileService.getCurrentProfileId());
+    }
+}
@@ -0,0 +1,151 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.entity.EmailOutboxEntity;
+import in.chester.moneymanager.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private static final EnumSet<EmailOutboxEntity.Status> CLAIMABLE =
+            EnumSet.of(EmailOutboxEntity.Status.PENDING, EmailOutboxEntity.Status.SENDING);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final ThreadPoolTaskExecutor emailOutboxExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${app.email.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    @Value("${app.email.outbox.lease:5m}")
+    private Duration lease;
+
+    @Value("${app.email.outbox.retention:7d}")
+    private Duration retention;
+
+    // Joins the caller's transaction so the email is only queued if the triggering change commits.
+    @Transactional
+    public void enqueue(String to, String subject, String body) {
+        emailOutboxRepository.save(EmailOutboxEntity.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .status(EmailOutboxEntity.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval:5s}")
+    public void dispatchDue() {
+        List<EmailOutboxEntity> claimed;
+        do {
+            claimed = claimDue();
+            List<CompletableFuture<Void>> deliveries = new ArrayList<>(claimed.size());
+            for (EmailOutboxEntity message : claimed) {
+                deliveries.add(CompletableFuture.runAsync(() -> deliver(message), emailOutboxExecutor));
+            }
+            // wait for the batch so polls never overlap and the pool stays bounded
+            CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+        } while (claimed.size() == batchSize);
+    }
+
+    @Scheduled(cron = "${app.email.outbox.purge-cron:0 15 4 * * *}")
+    public void purgeSent() {
+        int deleted = emailOutboxRepository.deleteByStatusAndUpdatedAtBefore(
+                EmailOutboxEntity.Status.SENT, LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} sent outbox emails", deleted);
+        }
+    }
+
+    // Marks due rows as SENDING with a lease; rows whose lease ran out (crashed worker) are claimed again.
+    // Each claim counts as an attempt, so a message that keeps taking its worker down still ends up DEAD.
+    private List<EmailOutboxEntity> claimDue() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxEntity> due = emailOutboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+                    CLAIMABLE, now, PageRequest.of(0, batchSize));
+            List<EmailOutboxEntity> claimed = new ArrayList<>(due.size());
+            for (EmailOutboxEntity message : due) {
+                if (message.getAttempts() >= maxAttempts) {
+                    // normally a re-claimed SENDING row: its last attempt never reported back
+                    log.error("Giving up on outbox email {} to {} after {} attempts: lease expired",
+                            message.getId(), message.getRecipient(), message.getAttempts());
+                    message.setStatus(EmailOutboxEntity.Status.DEAD);
+                    message.setNextAttemptAt(null);
+                    message.setLastError("Lease expired before delivery was confirmed");
+                    continue;
+                }
+                message.setStatus(EmailOutboxEntity.Status.SENDING);
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(now.plus(lease));
+                claimed.add(message);
+            }
+            return claimed;
+        });
+    }
+
+    private void deliver(EmailOutboxEntity message) {
+        // counted when the message was claimed
+        int attempts = message.getAttempts();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            emailService.sendEmail(message.getRecipient(), message.getSubject(), message.getBody());
+            emailOutboxRepository.updateDeliveryState(message.getId(), EmailOutboxEntity.Status.SENT,
+                    attempts, null, null, now, now);
+        } catch (Exception e) {
+            String error = truncate(e.getMessage());
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on outbox email {} to {} after {} attempts: {}",
+                        message.getId(), message.getRecipient(), attempts, error);
+                emailOutboxRepository.updateDeliveryState(message.getId(), EmailOutboxEntity.Status.DEAD,
+                        attempts, null, error, null, now);
+            } else {
+                log.warn("Outbox email {} failed (attempt {}), retrying: {}", message.getId(), attempts, error);
+                emailOutboxRepository.updateDeliveryState(message.getId(), EmailOutboxEntity.Status.PENDING,
+                        attempts, now.plus(backoff(attempts)), error, null, now);
+            }
+        }
+    }
+
+    // initialBackoff * 2^(attempts - 1), capped at maxBackoff
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
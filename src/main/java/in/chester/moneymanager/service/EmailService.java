@@ -1,13 +1,27 @@
 package in.chester.moneymanager.service;
 
+import in.chester.moneymanager.dto.EmailDTO;
+import in.chester.moneymanager.util.RateLimiter;
+import in.chester.moneymanager.util.SmtpTransportPool;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class EmailService {
 
     private final JavaMailSender mailSender;
@@ -15,16 +29,99 @@ public class EmailService {
     @Value("${spring.mail.properties.mail.smtp.from}")
     private String FROM_EMAIL;
 
+    @Value("${app.email.smtp.pool-size:8}")
+    private int poolSize;
+
+    @Value("${app.email.smtp.idle-check-ms:30000}")
+    private long idleCheckMillis;
+
+    @Value("${app.email.smtp.rate-per-second:10}")
+    private double ratePerSecond;
+
+    private SmtpTransportPool transportPool;
+    private RateLimiter rateLimiter;
+
+    @PostConstruct
+    void init() {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            throw new IllegalStateException("Pooled SMTP sending needs a JavaMailSenderImpl");
+        }
+        transportPool = new SmtpTransportPool(sender.getSession(), sender.getProtocol(), sender.getHost(),
+                sender.getPort(), sender.getUsername(), sender.getPassword(), poolSize, idleCheckMillis);
+        rateLimiter = new RateLimiter(ratePerSecond);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        transportPool.close();
+    }
+
     public void sendEmail(String to, String subject, String body) {
+        List<EmailDTO> failed = sendBatch(List.of(EmailDTO.builder().to(to).subject(subject).body(body).build()));
+        if (!failed.isEmpty()) {
+            throw new RuntimeException("Failed to send email to " + to);
+        }
+    }
+
+    // Sends every message over one pooled connection and returns the ones that could not be sent.
+    // A failure only affects its own message; if the connection dropped, it is replaced and the message retried once.
+    public List<EmailDTO> sendBatch(List<EmailDTO> emails) {
+        List<EmailDTO> failed = new ArrayList<>();
+        Transport transport = null;
+        int next = 0;
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(FROM_EMAIL);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-        } catch (Exception e) {
-            throw new RuntimeException(e.getMessage());
+            for (; next < emails.size(); next++) {
+                EmailDTO email = emails.get(next);
+                MimeMessage message;
+                try {
+                    message = toMimeMessage(email);
+                } catch (MessagingException e) {
+                    log.warn("Invalid email to {}: {}", email.getTo(), e.getMessage());
+                    failed.add(email);
+                    continue;
+                }
+                rateLimiter.acquire();
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        if (transport == null) {
+                            transport = transportPool.borrow();
+                        }
+                        transport.sendMessage(message, message.getAllRecipients());
+                        break;
+                    } catch (MessagingException e) {
+                        boolean connectionLost = transport == null || !transport.isConnected();
+                        if (connectionLost && transport != null) {
+                            transportPool.release(transport, true);
+                            transport = null;
+                        }
+                        if (!connectionLost || attempt == 2) {
+                            log.warn("Failed to send email to {}: {}", email.getTo(), e.getMessage());
+                            failed.add(email);
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // everything not yet sent counts as failed
+            failed.addAll(emails.subList(next, emails.size()));
+        } finally {
+            if (transport != null) {
+                transportPool.release(transport, false);
+            }
         }
+        return failed;
+    }
+
+    private MimeMessage toMimeMessage(EmailDTO email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(FROM_EMAIL);
+        helper.setTo(email.getTo());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), email.isHtml());
+        message.saveChanges();
+        return message;
     }
 }
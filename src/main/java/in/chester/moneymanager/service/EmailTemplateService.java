@@ -0,0 +1,90 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.util.EmailTemplate;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+// Email bodies rendered from templates in resources/email, compiled once at startup.
+@Service
+public class EmailTemplateService {
+
+    // buffers that grew past this are dropped rather than kept per thread
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    @Value("${money.manager.frontend.url}")
+    private String frontEndUrl;
+
+    private EmailTemplate reminder;
+    private EmailTemplate expenseSummary;
+    private EmailTemplate expenseSummaryRow;
+    private EmailTemplate activation;
+
+    @PostConstruct
+    void compileTemplates() {
+        reminder = EmailTemplate.compile(load("reminder.html"), true, Map.of("frontEndUrl", frontEndUrl), "fullName");
+        expenseSummary = EmailTemplate.compile(load("expense-summary.html"), true, Map.of(), "fullName", "rows");
+        expenseSummaryRow = EmailTemplate.compile(load("expense-summary-row.html"), true, Map.of(),
+                "index", "name", "amount", "category");
+        activation = EmailTemplate.compile(load("activation.txt"), false, Map.of(), "activationLink");
+    }
+
+    public String renderReminder(String fullName) {
+        StringBuilder out = buffer(reminder.staticLength() + 64);
+        reminder.render(out, fullName);
+        return finish(out);
+    }
+
+    public String renderExpenseSummary(String fullName, List<ExpenseDTO> expenses) {
+        StringBuilder out = buffer(expenseSummary.staticLength() + expenses.size() * (expenseSummaryRow.staticLength() + 64));
+        expenseSummary.writeFragment(out, 0);
+        expenseSummary.writeValue(out, fullName);
+        expenseSummary.writeFragment(out, 1);
+        int i = 1;
+        for (ExpenseDTO expense : expenses) {
+            expenseSummaryRow.render(out, i++, expense.getName(), expense.getAmount(),
+                    expense.getCategoryId() != null ? expense.getCategoryName() : "N/A");
+        }
+        expenseSummary.writeFragment(out, 2);
+        return finish(out);
+    }
+
+    public String renderActivation(String activationLink) {
+        StringBuilder out = buffer(activation.staticLength() + activationLink.length());
+        activation.render(out, activationLink);
+        return finish(out);
+    }
+
+    private StringBuilder buffer(int expectedLength) {
+        StringBuilder out = buffers.get();
+        out.setLength(0);
+        out.ensureCapacity(expectedLength);
+        return out;
+    }
+
+    private String finish(StringBuilder out) {
+        String rendered = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return rendered;
+    }
+
+    private static String load(String name) {
+        try {
+            return new ClassPathResource("email/" + name).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load email template " + name, e);
+        }
+    }
+}
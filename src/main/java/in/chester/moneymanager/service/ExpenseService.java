@@ -1,92 +1,156 @@
 package in.chester.moneymanager.service;
 
+import in.chester.moneymanager.dto.CategoryDTO;
 import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.dto.PageResponseDTO;
 import in.chester.moneymanager.entity.CategoryEntity;
 import in.chester.moneymanager.entity.ExpenseEntity;
 import in.chester.moneymanager.entity.ProfileEntity;
 import in.chester.moneymanager.repository.CategoryRepository;
+import in.chester.moneymanager.repository.KeysetPageQuery;
 import in.chester.moneymanager.repository.ExpenseRepository;
+import in.chester.moneymanager.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ExpenseService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final ExpenseRepository expenseRepository;
     private final ProfileService profileService;
+    private final ProfileBalanceService profileBalanceService;
+    private final CategoryRollupService categoryRollupService;
+    private final DataVersionService dataVersionService;
 
+    @Transactional
     public ExpenseDTO addExpense(ExpenseDTO expenseDTO) {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        CategoryEntity category = categoryRepository.findById(expenseDTO.getCategoryId()).orElseThrow(() -> new RuntimeException("Category not found"));
-        ExpenseEntity newExpense = convertToEntity(expenseDTO, profile, category);
+        ProfileEntity profile = profileService.getCurrentProfileReference();
+        // validated against the caller's categories as of its current data version, so another profile's
+        // category, or one deleted through another instance, is rejected before the insert
+        long version = dataVersionService.currentVersion(profile.getId());
+        CategoryDTO category = categoryCache.findOwned(profile.getId(), expenseDTO.getCategoryId(), version)
+                .orElseThrow(() -> new RuntimeException("Category not found"));
+        ExpenseEntity newExpense = convertToEntity(expenseDTO, profile, categoryRepository.getReferenceById(category.getId()));
         newExpense = expenseRepository.save(newExpense);
-        return convertToDto(newExpense);
+        profileBalanceService.recordExpense(profile.getId(), newExpense.getAmount());
+        categoryRollupService.record(CategoryRollupService.TYPE_EXPENSE, profile.getId(), category.getId(),
+                newExpense.getDate(), newExpense.getAmount());
+        if (dataVersionService.bumpFrom(profile.getId(), version)) {
+            // nothing else changed the profile since the version was read, so its cached categories stay current
+            categoryCache.advance(profile.getId(), version, version + 1);
+        }
+        return convertToDto(newExpense, category.getId(), category.getName());
     }
 
+    @Transactional(readOnly = true)
     public List<ExpenseDTO> getCurrentMonthExpensesForCurrentUser() {
-        ProfileEntity profile = profileService.getCurrentProfile();
+        Long profileId = profileService.getCurrentProfileId();
         LocalDate now = LocalDate.now();
         LocalDate startDate = now.withDayOfMonth(1);
         LocalDate endDate = now.withDayOfMonth(now.lengthOfMonth());
-        List<ExpenseEntity> expenses = expenseRepository.findByProfileIdAndDateBetween(profile.getId(), startDate, endDate);
-        return expenses.stream()
-                .map(this::convertToDto)
-                .toList();
+        return expenseRepository.findDtosBetween(profileId, startDate, endDate);
     }
 
+    @Transactional
     public void deleteExpense(Long expenseId) {
         try {
-            ProfileEntity profile = profileService.getCurrentProfile();
+            Long profileId = profileService.getCurrentProfileId();
             ExpenseEntity existingExpense = expenseRepository.findById(expenseId).orElseThrow(() -> new RuntimeException("Expense not found"));
 
-            if (!existingExpense.getProfile().getId().equals(profile.getId())){
+            if (!existingExpense.getProfile().getId().equals(profileId)){
                 throw new RuntimeException("You are not authorized to delete this expense");
             }
             expenseRepository.delete(existingExpense);
+            profileBalanceService.reverseExpense(profileId, existingExpense.getAmount());
+            categoryRollupService.reverse(CategoryRollupService.TYPE_EXPENSE, profileId, existingExpense.getCategory().getId(),
+                    existingExpense.getDate(), existingExpense.getAmount());
+            dataVersionService.bump(profileId);
         } catch (Exception e) {
             throw new RuntimeException("Error occurred while deleted the expense: " + e.getMessage());
         }
     }
 
     // Get latest 5 expenses for the current user
+    @Transactional(readOnly = true)
     public List<ExpenseDTO> getLatest5ExpensesForCurrentUser() {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<ExpenseEntity> expenses = expenseRepository.findTop5ByProfileIdOrderByDateDesc(profile.getId());
-        return expenses.stream()
-                .map(this::convertToDto)
-                .toList();
+        Long profileId = profileService.getCurrentProfileId();
+        return getLatest5ExpensesForProfile(profileId);
+    }
+
+    // Get latest 5 expenses for an already resolved profile
+    @Transactional(readOnly = true)
+    public List<ExpenseDTO> getLatest5ExpensesForProfile(Long profileId) {
+        return expenseRepository.findLatestDtos(profileId, PageRequest.ofSize(5));
     }
 
     // Get total expenses for the current user
     public BigDecimal getTotalExpensesForCurrentUser() {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        BigDecimal totalExpenses = expenseRepository.findTotalExpenseByProfileId(profile.getId());
-        return totalExpenses != null ? totalExpenses : BigDecimal.ZERO;
+        Long profileId = profileService.getCurrentProfileId();
+        return profileBalanceService.getTotals(profileId).getTotalExpense();
+    }
+
+    // Filter expenses, one keyset page at a time
+    @Transactional(readOnly = true)
+    public PageResponseDTO<ExpenseDTO> filterExpenses(LocalDate startDate, LocalDate endDate, String keyword,
+                                                String sortField, Sort.Direction direction,
+                                                KeysetCursor after, int pageSize) {
+        Long profileId = profileService.getCurrentProfileId();
+        // one extra row tells whether another page exists
+        List<ExpenseDTO> expenses = expenseRepository
+                .findFilterPage(profileId, startDate, endDate, keyword, sortField, direction, after, pageSize + 1);
+        boolean hasMore = expenses.size() > pageSize;
+        List<ExpenseDTO> items = hasMore ? expenses.subList(0, pageSize) : expenses;
+        String nextCursor = null;
+        if (hasMore) {
+            ExpenseDTO last = items.get(items.size() - 1);
+            nextCursor = KeysetPageQuery.cursorAfter(sortField, direction, last.getId(),
+                    last.getDate(), last.getAmount(), last.getName()).encode();
+        }
+        return PageResponseDTO.<ExpenseDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
-    // Filter expenses
-    public List<ExpenseDTO> filterExpenses(LocalDate startDate, LocalDate endDate, String keyword, Sort sort) {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<ExpenseEntity> expenses = expenseRepository
-                .findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profile.getId(), startDate, endDate, keyword, sort);
-        return expenses.stream()
-                .map(this::convertToDto)
-                .toList();
+    // Hands every matching expense to the consumer as it is read; rows are projected straight into
+    // DTOs so the persistence context stays empty however many rows match
+    @Transactional(readOnly = true)
+    public void streamExpenses(Long profileId, LocalDate startDate, LocalDate endDate, String keyword, Sort sort,
+                               Consumer<ExpenseDTO> consumer) {
+        try (Stream<ExpenseDTO> expenses = expenseRepository
+                .streamDtos(profileId, startDate, endDate, KeysetPageQuery.containsPattern(keyword), sort)) {
+            expenses.forEach(consumer);
+        }
     }
 
     // Notifications
+    @Transactional(readOnly = true)
     public List<ExpenseDTO> getExpensesForUserOnDate(Long profileId, LocalDate date) {
-        List<ExpenseEntity> expenses = expenseRepository.findByProfileIdAndDate(profileId, date);
-        return expenses.stream()
-                .map(this::convertToDto)
-                .toList();
+        return expenseRepository.findDtosOnDate(profileId, date);
+    }
+
+    // Expenses on a date for several profiles at once, keyed by profile id
+    @Transactional(readOnly = true)
+    public Map<Long, List<ExpenseDTO>> getExpensesForProfilesOnDate(Collection<Long> profileIds, LocalDate date) {
+        return expenseRepository.findByProfileIdInAndDateWithCategory(profileIds, date).stream()
+                .collect(Collectors.groupingBy(expense -> expense.getProfile().getId(),
+                        Collectors.mapping(this::convertToDto, Collectors.toList())));
     }
 
 //    public ExpenseDTO updateExpense(Long expenseId, ExpenseDTO expenseDTO) {
@@ -115,14 +179,20 @@ public class ExpenseService {
     }
 
     //helper methods
-    private ExpenseDTO convertToDto(ExpenseEntity expenseEntity) {
+    ExpenseDTO convertToDto(ExpenseEntity expenseEntity) {
+        CategoryEntity category = expenseEntity.getCategory();
+        return convertToDto(expenseEntity, category != null ? category.getId() : null,
+                category != null ? category.getName() : "N/A");
+    }
+
+    private ExpenseDTO convertToDto(ExpenseEntity expenseEntity, Long categoryId, String categoryName) {
         return ExpenseDTO.builder()
                 .id(expenseEntity.getId())
                 .name(expenseEntity.getName())
                 .icon(expenseEntity.getIcon())
                 .amount(expenseEntity.getAmount())
-                .categoryId(expenseEntity.getCategory() != null ? expenseEntity.getCategory().getId() : null)
-                .categoryName(expenseEntity.getCategory() != null ? expenseEntity.getCategory().getName() : "N/A")
+                .categoryId(categoryId)
+                .categoryName(categoryName)
                 .date(expenseEntity.getDate())
                 .createdAt(expenseEntity.getCreatedAt())
                 .updatedAt(expenseEntity.getUpdatedAt())
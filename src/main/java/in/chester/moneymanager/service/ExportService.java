@@ -0,0 +1,105 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.dto.FilterDTO;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Excel exports built with POI's streaming workbook: only a sliding window of rows is kept
+// in memory, older rows are flushed to a compressed temp file until the workbook is written out.
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final String[] HEADERS = {"Name", "Category", "Amount", "Date"};
+
+    private final ExpenseService expenseService;
+    private final IncomeService incomeService;
+    private final ProfileService profileService;
+
+    @Value("${app.export.row-window:100}")
+    private int rowWindow;
+
+    public void exportExpensesForCurrentUser(FilterDTO filterDTO, OutputStream out) throws IOException {
+        Long profileId = profileService.getCurrentProfileId();
+        try (SXSSFWorkbook workbook = createWorkbook()) {
+            ExcelSheet sheet = new ExcelSheet(workbook, "Expenses");
+            expenseService.streamExpenses(profileId, filterDTO.startDateOrDefault(), filterDTO.endDateOrDefault(),
+                    filterDTO.keywordOrDefault(), exportSort(filterDTO), expense ->
+                            sheet.addRow(expense.getName(), expense.getCategoryName(), expense.getAmount(), expense.getDate()));
+            write(workbook, out);
+        }
+    }
+
+    public void exportIncomesForCurrentUser(FilterDTO filterDTO, OutputStream out) throws IOException {
+        Long profileId = profileService.getCurrentProfileId();
+        try (SXSSFWorkbook workbook = createWorkbook()) {
+            ExcelSheet sheet = new ExcelSheet(workbook, "Incomes");
+            incomeService.streamIncomes(profileId, filterDTO.startDateOrDefault(), filterDTO.endDateOrDefault(),
+                    filterDTO.keywordOrDefault(), exportSort(filterDTO), income ->
+                            sheet.addRow(income.getName(), income.getCategoryName(), income.getAmount(), income.getDate()));
+            write(workbook, out);
+        }
+    }
+
+    private SXSSFWorkbook createWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+
+    // the client's sort, date ascending when left out; id breaks ties so equal values keep a stable order
+    private static Sort exportSort(FilterDTO filterDTO) {
+        Sort.Direction direction = filterDTO.sortDirection();
+        return Sort.by(direction, filterDTO.sortFieldOrDefault()).and(Sort.by(direction, "id"));
+    }
+
+    private static void write(SXSSFWorkbook workbook, OutputStream out) throws IOException {
+        try {
+            workbook.write(out);
+        } finally {
+            // removes the temp file backing the flushed rows
+            workbook.dispose();
+        }
+    }
+
+    private static class ExcelSheet {
+
+        private final Sheet sheet;
+        private final CellStyle dateStyle;
+        private int rowNum = 0;
+
+        ExcelSheet(SXSSFWorkbook workbook, String name) {
+            this.sheet = workbook.createSheet(name);
+            this.dateStyle = workbook.createCellStyle();
+            this.dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            Row header = sheet.createRow(rowNum++);
+            for (int i = 0; i < HEADERS.length; i++) {
+                header.createCell(i).setCellValue(HEADERS[i]);
+            }
+        }
+
+        void addRow(String name, String category, BigDecimal amount, LocalDate date) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(name);
+            row.createCell(1).setCellValue(category);
+            if (amount != null) {
+                row.createCell(2).setCellValue(amount.doubleValue());
+            }
+            if (date != null) {
+                row.createCell(3).setCellValue(date);
+                row.getCell(3).setCellStyle(dateStyle);
+            }
+        }
+    }
+}
@@ -1,86 +1,141 @@
 package in.chester.moneymanager.service;
 
 import in.chester.moneymanager.dto.ExpenseDTO;
+import in.chester.moneymanager.dto.CategoryDTO;
 import in.chester.moneymanager.dto.IncomeDTO;
+import in.chester.moneymanager.dto.PageResponseDTO;
 import in.chester.moneymanager.entity.CategoryEntity;
 import in.chester.moneymanager.entity.ExpenseEntity;
 import in.chester.moneymanager.entity.IncomeEntity;
 import in.chester.moneymanager.entity.ProfileEntity;
 import in.chester.moneymanager.repository.CategoryRepository;
 import in.chester.moneymanager.repository.IncomeRepository;
+import in.chester.moneymanager.repository.KeysetPageQuery;
+import in.chester.moneymanager.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class IncomeService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final IncomeRepository incomeRepository;
     private final ProfileService profileService;
+    private final ProfileBalanceService profileBalanceService;
+    private final CategoryRollupService categoryRollupService;
+    private final DataVersionService dataVersionService;
 
+    @Transactional
     public IncomeDTO addIncome(IncomeDTO incomeDTO) {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        CategoryEntity category = categoryRepository.findById(incomeDTO.getCategoryId()).orElseThrow(() -> new RuntimeException("Category not found"));
-        IncomeEntity newIncome = convertToEntity(incomeDTO, profile, category);
+        ProfileEntity profile = profileService.getCurrentProfileReference();
+        // validated against the caller's categories as of its current data version, so another profile's
+        // category, or one deleted through another instance, is rejected before the insert
+        long version = dataVersionService.currentVersion(profile.getId());
+        CategoryDTO category = categoryCache.findOwned(profile.getId(), incomeDTO.getCategoryId(), version)
+                .orElseThrow(() -> new RuntimeException("Category not found"));
+        IncomeEntity newIncome = convertToEntity(incomeDTO, profile, categoryRepository.getReferenceById(category.getId()));
         newIncome = incomeRepository.save(newIncome);
-        return convertToDto(newIncome);
+        profileBalanceService.recordIncome(profile.getId(), newIncome.getAmount());
+        categoryRollupService.record(CategoryRollupService.TYPE_INCOME, profile.getId(), category.getId(),
+                newIncome.getDate(), newIncome.getAmount());
+        if (dataVersionService.bumpFrom(profile.getId(), version)) {
+            // nothing else changed the profile since the version was read, so its cached categories stay current
+            categoryCache.advance(profile.getId(), version, version + 1);
+        }
+        return convertToDto(newIncome, category.getId(), category.getName());
     }
 
+    @Transactional(readOnly = true)
     public List<IncomeDTO> getCurrentMonthIncomeForCurrentUser()  {
-        ProfileEntity profile = profileService.getCurrentProfile();
+        Long profileId = profileService.getCurrentProfileId();
         LocalDate now = LocalDate.now();
         LocalDate startDate = now.withDayOfMonth(1);
         LocalDate endDate = now.withDayOfMonth(now.lengthOfMonth());
-        List<IncomeEntity> incomes = incomeRepository.findByProfileIdAndDateBetween(profile.getId(), startDate, endDate);
-        return incomes.stream()
-                .map(this::convertToDto)
-                .toList();
+        return incomeRepository.findDtosBetween(profileId, startDate, endDate);
     }
 
+    @Transactional
     public void deleteIncome(Long incomeId) {
         try {
-            ProfileEntity profile = profileService.getCurrentProfile();
+            Long profileId = profileService.getCurrentProfileId();
             IncomeEntity existingIncome = incomeRepository.findById(incomeId).orElseThrow(() -> new RuntimeException("Income not found"));
 
-            if (!existingIncome.getProfile().getId().equals(profile.getId())){
+            if (!existingIncome.getProfile().getId().equals(profileId)){
                 throw new RuntimeException("You are not authorized to delete this income");
             }
             incomeRepository.delete(existingIncome);
+            profileBalanceService.reverseIncome(profileId, existingIncome.getAmount());
+            categoryRollupService.reverse(CategoryRollupService.TYPE_INCOME, profileId, existingIncome.getCategory().getId(),
+                    existingIncome.getDate(), existingIncome.getAmount());
+            dataVersionService.bump(profileId);
         } catch (Exception e) {
             throw new RuntimeException("Error occurred while deleted the income: " + e.getMessage());
         }
     }
 
     // Get latest 5 incomes for the current user
+    @Transactional(readOnly = true)
     public List<IncomeDTO> getLatest5IncomesForCurrentUser() {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<IncomeEntity> incomes = incomeRepository.findTop5ByProfileIdOrderByDateDesc(profile.getId());
-        return incomes.stream()
-                .map(this::convertToDto)
-                .toList();
+        Long profileId = profileService.getCurrentProfileId();
+        return getLatest5IncomesForProfile(profileId);
+    }
+
+    // Get latest 5 incomes for an already resolved profile
+    @Transactional(readOnly = true)
+    public List<IncomeDTO> getLatest5IncomesForProfile(Long profileId) {
+        return incomeRepository.findLatestDtos(profileId, PageRequest.ofSize(5));
     }
 
     // Get total incomes for the current user
     public BigDecimal getTotalIncomesForCurrentUser() {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        BigDecimal totalExpenses = incomeRepository.findTotalExpenseByProfileId(profile.getId());
-        return totalExpenses != null ? totalExpenses : BigDecimal.ZERO;
+        Long profileId = profileService.getCurrentProfileId();
+        return profileBalanceService.getTotals(profileId).getTotalIncome();
+    }
+
+    // Filter incomes, one keyset page at a time
+    @Transactional(readOnly = true)
+    public PageResponseDTO<IncomeDTO> filterIncomes(LocalDate startDate, LocalDate endDate, String keyword,
+                                                String sortField, Sort.Direction direction,
+                                                KeysetCursor after, int pageSize) {
+        Long profileId = profileService.getCurrentProfileId();
+        // one extra row tells whether another page exists
+        List<IncomeDTO> incomes = incomeRepository
+                .findFilterPage(profileId, startDate, endDate, keyword, sortField, direction, after, pageSize + 1);
+        boolean hasMore = incomes.size() > pageSize;
+        List<IncomeDTO> items = hasMore ? incomes.subList(0, pageSize) : incomes;
+        String nextCursor = null;
+        if (hasMore) {
+            IncomeDTO last = items.get(items.size() - 1);
+            nextCursor = KeysetPageQuery.cursorAfter(sortField, direction, last.getId(),
+                    last.getDate(), last.getAmount(), last.getName()).encode();
+        }
+        return PageResponseDTO.<IncomeDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
-    // Filter incomes
-    public List<IncomeDTO> filterIncomes(LocalDate startDate, LocalDate endDate, String keyword, Sort sort) {
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<IncomeEntity> incomes = incomeRepository
-                .findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profile.getId(), startDate, endDate, keyword, sort);
-        return incomes.stream()
-                .map(this::convertToDto)
-                .toList();
+    // Hands every matching income to the consumer as it is read; rows are projected straight into
+    // DTOs so the persistence context stays empty however many rows match
+    @Transactional(readOnly = true)
+    public void streamIncomes(Long profileId, LocalDate startDate, LocalDate endDate, String keyword, Sort sort,
+                              Consumer<IncomeDTO> consumer) {
+        try (Stream<IncomeDTO> incomes = incomeRepository
+                .streamDtos(profileId, startDate, endDate, KeysetPageQuery.containsPattern(keyword), sort)) {
+            incomes.forEach(consumer);
+        }
     }
 
     //helper methods
@@ -96,14 +151,20 @@ public class IncomeService {
     }
 
     //helper methods
-    private IncomeDTO convertToDto(IncomeEntity incomeEntity) {
+    IncomeDTO convertToDto(IncomeEntity incomeEntity) {
+        CategoryEntity category = incomeEntity.getCategory();
+        return convertToDto(incomeEntity, category != null ? category.getId() : null,
+                category != null ? category.getName() : "N/A");
+    }
+
+    private IncomeDTO convertToDto(IncomeEntity incomeEntity, Long categoryId, String categoryName) {
         return IncomeDTO.builder()
                 .id(incomeEntity.getId())
                 .name(incomeEntity.getName())
                 .icon(incomeEntity.getIcon())
                 .amount(incomeEntity.getAmount())
-                .categoryId(incomeEntity.getCategory() != null ? incomeEntity.getCategory().getId() : null)
-                .categoryName(incomeEntity.getCategory() != null ? incomeEntity.getCategory().getName() : "N/A")
+                .categoryId(categoryId)
+                .categoryName(categoryName)
                 .date(incomeEntity.getDate())
                 .createdAt(incomeEntity.getCreatedAt())
                 .updatedAt(incomeEntity.getUpdatedAt())
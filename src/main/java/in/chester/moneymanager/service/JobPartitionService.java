@@ -0,0 +1,171 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.entity.JobPartitionEntity;
+import in.chester.moneymanager.repository.JobPartitionRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Splits a scheduled run over profile id ranges that any node can claim, so a run is shared by every
+ * live instance and each range is handled by one node at a time. A range whose owner stops renewing its
+ * lease is picked up again from its last checkpoint, so delivery is at-least-once per range with at most
+ * one page repeated after a crash.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobPartitionService {
+
+    @FunctionalInterface
+    public interface Worker {
+        // Processes profile ids in (afterId, toId]. checkpoint(lastId) returns false once the lease is lost.
+        void process(String runKey, long afterId, long toId, LongPredicate checkpoint);
+    }
+
+    private final JobPartitionRepository jobPartitionRepository;
+    private final ProfileRepository profileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ShardDirectory shardDirectory;
+
+    private final Map<String, Worker> workers = new ConcurrentHashMap<>();
+    private final String nodeId = nodeName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Value("${app.jobs.partition-size:5000}")
+    private long partitionSize;
+
+    @Value("${app.jobs.lease:2m}")
+    private Duration lease;
+
+    @Value("${app.jobs.recovery-window:1d}")
+    private Duration recoveryWindow;
+
+    @Value("${app.jobs.retention:14d}")
+    private Duration retention;
+
+    public void register(String jobName, Worker worker) {
+        workers.put(jobName, worker);
+    }
+
+    // Called by every node at the scheduled time: the first one plans the partitions, then all of them drain.
+    public void run(String jobName, String runKey) {
+        plan(jobName, runKey);
+        drain(jobName, runKey);
+    }
+
+    // Picks up partitions whose owner died, and partitions nobody got to before the nodes went away.
+    // Each shard keeps the partitions of the jobs that ran against it.
+    @Scheduled(fixedDelayString = "${app.jobs.recovery-interval:1m}")
+    public void resumeStalled() {
+        shardDirectory.forEachShard(this::resumeStalledOnShard);
+    }
+
+    private void resumeStalledOnShard() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<List<String>> runs = new LinkedHashSet<>();
+        for (JobPartitionEntity partition : jobPartitionRepository.findClaimableSince(now.minus(recoveryWindow), now)) {
+            runs.add(List.of(partition.getJobName(), partition.getRunKey()));
+        }
+        for (List<String> run : runs) {
+            log.info("Resuming unfinished partitions of {} run {}", run.get(0), run.get(1));
+            drain(run.get(0), run.get(1));
+        }
+        jobPartitionRepository.deleteCreatedBefore(now.minus(retention));
+    }
+
+    // Writes the run's partitions unless another node already has; safe to call for the same run more than once.
+    public void plan(String jobName, String runKey) {
+        if (jobPartitionRepository.existsByJobNameAndRunKey(jobName, runKey)) {
+            return;
+        }
+        long maxId = profileRepository.findMaxId();
+        List<JobPartitionEntity> partitions = new ArrayList<>();
+        int partitionNo = 0;
+        for (long from = 0; from < maxId || partitionNo == 0; from += partitionSize) {
+            partitions.add(JobPartitionEntity.builder()
+                    .jobName(jobName)
+                    .runKey(runKey)
+                    .partitionNo(partitionNo++)
+                    .fromIdExclusive(from)
+                    // the last range is open-ended so profiles registered mid-run are included
+                    .toIdInclusive(from + partitionSize >= maxId ? Long.MAX_VALUE : from + partitionSize)
+                    .checkpointId(from)
+                    .status(JobPartitionEntity.Status.PENDING)
+                    .build());
+        }
+        try {
+            // all-or-nothing: a node racing us on the unique key loses and just drains
+            transactionTemplate.executeWithoutResult(status -> jobPartitionRepository.saveAllAndFlush(partitions));
+            log.info("Planned {} partitions for {} run {}", partitions.size(), jobName, runKey);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Partitions for {} run {} already planned by another node", jobName, runKey);
+        }
+    }
+
+    // Claims and processes the run's partitions until none are left that this node can take.
+    public void drain(String jobName, String runKey) {
+        Worker worker = workers.get(jobName);
+        if (worker == null) {
+            return;
+        }
+        JobPartitionEntity partition;
+        while ((partition = claimNext(jobName, runKey)) != null) {
+            long partitionId = partition.getId();
+            LongPredicate checkpoint = lastId -> jobPartitionRepository.checkpoint(partitionId, nodeId, lastId,
+                    LocalDateTime.now().plus(lease), LocalDateTime.now()) == 1;
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "completed";
+            try {
+                worker.process(runKey, partition.getCheckpointId(), partition.getToIdInclusive(), checkpoint);
+                if (jobPartitionRepository.complete(partitionId, nodeId, LocalDateTime.now()) == 0) {
+                    outcome = "lost";
+                    log.warn("Lost lease on partition {} of {} run {}", partition.getPartitionNo(), jobName, runKey);
+                }
+            } catch (RuntimeException e) {
+                // leave it RUNNING; it becomes claimable again when the lease expires
+                outcome = "failed";
+                log.error("Partition {} of {} run {} failed: {}", partition.getPartitionNo(), jobName, runKey, e.getMessage());
+            } finally {
+                sample.stop(meterRegistry.timer("jobs.partition", "job", jobName, "outcome", outcome));
+            }
+        }
+    }
+
+    private JobPartitionEntity claimNext(String jobName, String runKey) {
+        LocalDateTime now = LocalDateTime.now();
+        for (JobPartitionEntity candidate : jobPartitionRepository.findClaimable(jobName, runKey, now)) {
+            if (jobPartitionRepository.claim(candidate.getId(), nodeId, now.plus(lease), now) == 1) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String nodeName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
@@ -1,75 +1,250 @@
 package in.chester.moneymanager.service;
 
+import in.chester.moneymanager.dto.EmailDTO;
 import in.chester.moneymanager.dto.ExpenseDTO;
 import in.chester.moneymanager.entity.ProfileEntity;
 import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.util.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    private static final String REMINDER_JOB = "daily-reminder";
+    private static final String SUMMARY_JOB = "daily-expense-summary";
+    // each local hour is split into 12 five-minute slots; a profile is due in slot id % 12
+    private static final int SLOT_MINUTES = 5;
+    private static final int SLOTS_PER_HOUR = 60 / SLOT_MINUTES;
+    private static final Duration SLOT = Duration.ofMinutes(SLOT_MINUTES);
+    // lastPlannedTicks key when the scheduler is not bound to a shard
+    private static final int UNSHARDED = -1;
+
     private final ExpenseService expenseService;
     private final ProfileRepository profileRepository;
     private final EmailService emailService;
+    private final EmailTemplateService emailTemplateService;
+    private final ThreadPoolTaskExecutor notificationExecutor;
+    private final MeterRegistry meterRegistry;
+    private final JobPartitionService jobPartitionService;
+    private final ShardDirectory shardDirectory;
+    private final TimezoneCache timezoneCache;
+    private final ThreadPoolTaskExecutor notificationDrainExecutor;
+    private final Clock clock;
+
+    // last tick planned per shard on this node
+    private final Map<Integer, Instant> lastPlannedTicks = new ConcurrentHashMap<>();
+
+    @Value("${app.notification.page-size:200}")
+    private int pageSize;
+
+    @Value("${app.notification.batch-size:25}")
+    private int batchSize;
+
+    @Value("${app.notification.default-timezone:Asia/Kolkata}")
+    private String defaultTimezone;
+
+    @Value("${app.notification.reminder-hour:22}")
+    private int reminderHour;
+
+    @Value("${app.notification.summary-hour:23}")
+    private int summaryHour;
+
+    @Value("${app.notification.catch-up:1h}")
+    private Duration catchUp;
+
+    @PostConstruct
+    void init() {
+        // the run key carries the local date, so a slot resumed after midnight still reports the right day
+        jobPartitionService.register(REMINDER_JOB, (runKey, afterId, toId, checkpoint) ->
+                processProfiles(REMINDER_JOB, SlotRun.parse(runKey), afterId, toId, checkpoint, page -> page.stream()
+                        .map(profile -> new Delivery(profile.getEmail(), "Daily Income and Expense Reminder",
+                                () -> emailTemplateService.renderReminder(profile.getFullName())))
+                        .toList()));
+        jobPartitionService.register(SUMMARY_JOB, (runKey, afterId, toId, checkpoint) -> {
+            SlotRun run = SlotRun.parse(runKey);
+            processProfiles(SUMMARY_JOB, run, afterId, toId, checkpoint, page -> {
+                Map<Long, List<ExpenseDTO>> expensesByProfile = expenseService.getExpensesForProfilesOnDate(
+                        page.stream().map(ProfileEntity::getId).toList(), run.date());
+                return page.stream()
+                        .filter(profile -> expensesByProfile.containsKey(profile.getId()))
+                        .map(profile -> new Delivery(profile.getEmail(), "Your daily Expense summary",
+                                () -> emailTemplateService.renderExpenseSummary(profile.getFullName(),
+                                        expensesByProfile.get(profile.getId()))))
+                        .toList();
+            });
+        });
+    }
+
+    // Timing wheel: every five minutes, each timezone whose local clock is in the reminder or summary hour
+    // gets the slot for its local minute, so a zone's emails are spread over the hour and zones over the day.
+    // The scheduler thread only plans; the slots are drained on notificationDrainExecutor, so a long send
+    // never delays the next tick. Shards run in parallel, each over the profiles it is home to.
+    @Scheduled(cron = "0 */5 * * * *", zone = "UTC")
+    public void dispatchEveningEmails() {
+        Instant tick = tickAt(clock.instant());
+        shardDirectory.forEachShard(() -> planDueSlots(tick));
+    }
 
-    @Value("${money.manager.frontend.url}")
-    private String frontEndUrl;
-
-    @Scheduled(cron = "0 0 22 * * *", zone = "IST")
-    public void sendDailyIncomeExpenseReminder() {
-        log.info("Job started: sendDailyIncomeExpenseReminder()");
-        List<ProfileEntity> profiles = profileRepository.findAll();
-        for (ProfileEntity profile : profiles) {
-            String body = "Hello " + profile.getFullName() + ",<br><br>" +
-                    "This is a friendly reminder to log your income and expenses for today.<br><br>" +
-                    "<a href='" + frontEndUrl + "' style='display:inline-block;padding:10px 20px;background-color:#4CAF50;color:#fff;text-decoration:none;border-radius:5px;font-weight:bold;'>Go to Money Manager</a><br><br>" +
-                    "Thank you for using Money Manager!<br><br>" +
-                    "Best regards,<br>" +
-                    "Money Manager Team";
-            emailService.sendEmail(profile.getEmail(), "Daily Income and Expense Reminder", body);
+    // Plans every tick since the last one this node planned on the bound shard, so ticks the scheduler
+    // skipped (or missed while the node was down, within the catch-up window) still get their slots.
+    private void planDueSlots(Instant tick) {
+        Integer shard = ShardContext.current();
+        int shardKey = shard != null ? shard : UNSHARDED;
+        Instant earliest = tick.minus(catchUp);
+        Instant last = lastPlannedTicks.get(shardKey);
+        Instant from = last != null && last.isAfter(earliest) ? last.plus(SLOT) : earliest;
+        Set<String> zones = timezoneCache.findAll();
+        List<PlannedRun> planned = new ArrayList<>();
+        for (Instant at = from; !at.isAfter(tick); at = at.plus(SLOT)) {
+            planned.addAll(planTick(at, zones));
+        }
+        lastPlannedTicks.put(shardKey, tick);
+        for (PlannedRun run : planned) {
+            // every node drains, whichever one planned the run
+            notificationDrainExecutor.execute(() ->
+                    ShardContext.runOn(shard, () -> jobPartitionService.drain(run.job(), run.runKey())));
         }
-        log.info("Job completed: sendDailyIncomeExpenseReminder()");
     }
 
-    @Scheduled(cron = "0 0 23 * * *", zone = "IST")
-    public void sendDailyExpenseSummary() {
-        log.info("Job started: sendDailyExpenseSummary()");
-        List<ProfileEntity> profiles = profileRepository.findAll();
-        for (ProfileEntity profile : profiles) {
-            List<ExpenseDTO> todaysExpenses = expenseService.getExpensesForUserOnDate(profile.getId(), LocalDate.now(ZoneId.of("Asia/Kolkata")));
-            if (!todaysExpenses.isEmpty()) {
-                StringBuilder table = new StringBuilder();
-                table.append("<table style='width:100%;border-collapse:collapse;'>");
-                table.append("<tr style='background-color:#f2f2f2;'><th style='border:1px solid #ddd;padding:8px;'>S.No</th><th style='border:1px solid #ddd;padding:8px;'>Name</th><th style='border:1px solid #ddd;padding:8px;'>Amount</th><th style='border:1px solid #ddd;padding:8px;'>Category</th></tr>");
-                int i  = 1;
-                for (ExpenseDTO expense : todaysExpenses) {
-                    table.append("<tr>");
-                    table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(i++).append("</td>");
-                    table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(expense.getName()).append("</td>");
-                    table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(expense.getAmount()).append("</td>");
-                    table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(expense.getCategoryId() != null ? expense.getCategoryName() : "N/A").append("</td>");
-                    table.append("</tr>");
-                }
-                table.append("</table>");
-                String body = "Hello " + profile.getFullName() + ",<br><br>" +
-                        "Here is your expense summary for today:<br><br>" +
-                        table +
-                        "<br><br>Thank you for using Money Manager!<br><br>" +
-                        "Best regards,<br>" +
-                        "Money Manager Team";
-                emailService.sendEmail(profile.getEmail(), "Your daily Expense summary", body);
+    private List<PlannedRun> planTick(Instant tick, Set<String> zones) {
+        List<PlannedRun> planned = new ArrayList<>();
+        for (String zone : zones) {
+            ZonedDateTime local;
+            try {
+                local = tick.atZone(ZoneId.of(zone));
+            } catch (DateTimeException e) {
+                log.warn("Skipping profiles with unknown timezone {}", zone);
+                continue;
+            }
+            SlotRun run = new SlotRun(local.toLocalDate(), zone, local.getMinute() / SLOT_MINUTES);
+            String job = local.getHour() == reminderHour ? REMINDER_JOB
+                    : local.getHour() == summaryHour ? SUMMARY_JOB
+                    : null;
+            if (job != null) {
+                jobPartitionService.plan(job, run.key());
+                planned.add(new PlannedRun(job, run.key()));
             }
         }
-        log.info("Job completed: sendDailyExpenseSummary()");
+        return planned;
+    }
+
+    // start of the five-minute slot the instant falls in
+    private static Instant tickAt(Instant instant) {
+        long slotSeconds = SLOT.getSeconds();
+        return Instant.ofEpochSecond(instant.getEpochSecond() - Math.floorMod(instant.getEpochSecond(), slotSeconds));
+    }
+
+    // Walks one partition's profiles for a slot in id order a page at a time; each page's emails are rendered and
+    // sent on the notification pool (its size is the concurrency limit) and checkpointed before the next page.
+    private void processProfiles(String job, SlotRun run, long fromId, long toId, LongPredicate checkpoint,
+                                 Function<List<ProfileEntity>, List<Delivery>> planPage) {
+        log.info("Job started: {} {} ({}, {}]", job, run.key(), fromId, toId);
+        Counter profilesCounter = meterRegistry.counter("notification.job.profiles", "job", job);
+        Counter sentCounter = meterRegistry.counter("notification.job.emails", "job", job, "outcome", "sent");
+        Counter failedCounter = meterRegistry.counter("notification.job.emails", "job", job, "outcome", "failed");
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long processed = 0;
+        long afterId = fromId;
+        List<ProfileEntity> page;
+        do {
+            page = profileRepository.findSlotPage(afterId, toId, run.zone(), defaultTimezone,
+                    SLOTS_PER_HOUR, run.slot(), PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<Delivery> deliveries = planPage.apply(page);
+            List<CompletableFuture<Void>> sends = new ArrayList<>();
+            for (int from = 0; from < deliveries.size(); from += batchSize) {
+                List<Delivery> batch = deliveries.subList(from, Math.min(from + batchSize, deliveries.size()));
+                sends.add(CompletableFuture.runAsync(() -> {
+                    int batchFailed = send(batch);
+                    sent.addAndGet(batch.size() - batchFailed);
+                    sentCounter.increment(batch.size() - batchFailed);
+                    failed.addAndGet(batchFailed);
+                    failedCounter.increment(batchFailed);
+                }, notificationExecutor));
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+            processed += page.size();
+            profilesCounter.increment(page.size());
+            afterId = page.get(page.size() - 1).getId();
+            log.debug("Job {} progress: {} profiles, {} sent, {} failed", job, processed, sent.get(), failed.get());
+            if (!checkpoint.test(afterId)) {
+                log.warn("Job {} lost its partition lease at profile {}, stopping", job, afterId);
+                break;
+            }
+        } while (page.size() == pageSize);
+        log.info("Job completed: {} ({} profiles, {} sent, {} failed)", job, processed, sent.get(), failed.get());
+    }
+
+    // renders a batch and sends it over one pooled SMTP connection; returns how many failed
+    private int send(List<Delivery> batch) {
+        List<EmailDTO> emails = new ArrayList<>(batch.size());
+        int failed = 0;
+        for (Delivery delivery : batch) {
+            try {
+                emails.add(EmailDTO.builder()
+                        .to(delivery.to())
+                        .subject(delivery.subject())
+                        .body(delivery.body().get())
+                        .html(true)
+                        .build());
+            } catch (Exception e) {
+                log.warn("Failed to render '{}' for {}: {}", delivery.subject(), delivery.to(), e.getMessage());
+                failed++;
+            }
+        }
+        return failed + emailService.sendBatch(emails).size();
+    }
+
+    // one slot of one timezone's evening on one local date; encoded as the job run key
+    private record SlotRun(LocalDate date, String zone, int slot) {
+
+        String key() {
+            return date + "|" + zone + "|" + slot;
+        }
+
+        static SlotRun parse(String key) {
+            String[] parts = key.split("\\|");
+            return new SlotRun(LocalDate.parse(parts[0]), parts[1], Integer.parseInt(parts[2]));
+        }
+    }
+
+    // a planned job run waiting to be drained
+    private record PlannedRun(String job, String runKey) {
+    }
+
+    // body is rendered lazily on the worker thread
+    private record Delivery(String to, String subject, Supplier<String> body) {
     }
 }
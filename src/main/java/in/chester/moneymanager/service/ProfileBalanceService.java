@@ -0,0 +1,127 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.dto.DashboardTotalsDTO;
+import in.chester.moneymanager.dto.LedgerTotalDTO;
+import in.chester.moneymanager.entity.ProfileBalanceEntity;
+import in.chester.moneymanager.repository.ExpenseRepository;
+import in.chester.moneymanager.repository.IncomeRepository;
+import in.chester.moneymanager.repository.ProfileBalanceRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Maintains profile_balances_tbl. Deltas are applied inside the caller's transaction,
+// and a nightly job rebuilds the rows from the ledger tables to repair any drift.
+@Service
+public class ProfileBalanceService {
+
+    private final ProfileBalanceRepository profileBalanceRepository;
+    private final IncomeRepository incomeRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ProfileRepository profileRepository;
+    private final ShardDirectory shardDirectory;
+
+    @Value("${app.balance.reconcile.page-size:500}")
+    private int reconcilePageSize;
+
+    public ProfileBalanceService(ProfileBalanceRepository profileBalanceRepository,
+                                 IncomeRepository incomeRepository,
+                                 ExpenseRepository expenseRepository,
+                                 ProfileRepository profileRepository,
+                                 ShardDirectory shardDirectory) {
+        this.profileBalanceRepository = profileBalanceRepository;
+        this.incomeRepository = incomeRepository;
+        this.expenseRepository = expenseRepository;
+        this.profileRepository = profileRepository;
+        this.shardDirectory = shardDirectory;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordIncome(Long profileId, BigDecimal amount) {
+        applyDelta(profileId, orZero(amount), 1, BigDecimal.ZERO, 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reverseIncome(Long profileId, BigDecimal amount) {
+        applyDelta(profileId, orZero(amount).negate(), -1, BigDecimal.ZERO, 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpense(Long profileId, BigDecimal amount) {
+        applyDelta(profileId, BigDecimal.ZERO, 0, orZero(amount), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reverseExpense(Long profileId, BigDecimal amount) {
+        applyDelta(profileId, BigDecimal.ZERO, 0, orZero(amount).negate(), -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDelta(Long profileId, BigDecimal incomeDelta, long incomeCountDelta,
+                           BigDecimal expenseDelta, long expenseCountDelta) {
+        int updated = profileBalanceRepository.applyDelta(profileId, incomeDelta, incomeCountDelta,
+                expenseDelta, expenseCountDelta, LocalDateTime.now());
+        if (updated == 0) {
+            // first write for this profile: seed the row from the ledger, which already includes this change
+            reconcile(List.of(profileId));
+        }
+    }
+
+    // Primary-key read; profiles the reconciliation job has not reached yet fall back to one SUM query
+    @Transactional(readOnly = true)
+    public DashboardTotalsDTO getTotals(Long profileId) {
+        return profileBalanceRepository.findById(profileId)
+                .map(balance -> new DashboardTotalsDTO(balance.getTotalIncome(), balance.getTotalExpense()))
+                .orElseGet(() -> profileRepository.findDashboardTotalsByProfileId(profileId));
+    }
+
+    @Scheduled(cron = "${app.balance.reconcile.cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        shardDirectory.forEachProfilePage("reconcileAll()", reconcilePageSize, this::reconcile);
+    }
+
+    private void reconcile(List<Long> profileIds) {
+        // lock first so deltas committed after this point are applied on top of the rebuilt totals
+        Map<Long, ProfileBalanceEntity> balances = profileBalanceRepository.findByProfileIdIn(profileIds).stream()
+                .collect(Collectors.toMap(ProfileBalanceEntity::getProfileId, Function.identity()));
+        List<Long> missing = profileIds.stream().filter(id -> !balances.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            // two first writes may race here; the insert skips an existing row, so the loser
+            // waits on the winner's row lock instead of failing on a duplicate key
+            LocalDateTime now = LocalDateTime.now();
+            missing.forEach(id -> profileBalanceRepository.insertIfAbsent(id, now));
+            profileBalanceRepository.findByProfileIdIn(missing)
+                    .forEach(balance -> balances.put(balance.getProfileId(), balance));
+        }
+        Map<Long, LedgerTotalDTO> incomes = incomeRepository.findTotalsByProfileIds(profileIds).stream()
+                .collect(Collectors.toMap(LedgerTotalDTO::getProfileId, Function.identity()));
+        Map<Long, LedgerTotalDTO> expenses = expenseRepository.findTotalsByProfileIds(profileIds).stream()
+                .collect(Collectors.toMap(LedgerTotalDTO::getProfileId, Function.identity()));
+
+        for (Long profileId : profileIds) {
+            LedgerTotalDTO income = incomes.get(profileId);
+            LedgerTotalDTO expense = expenses.get(profileId);
+            ProfileBalanceEntity balance = balances.get(profileId);
+            balance.setTotalIncome(income != null ? income.getTotal() : BigDecimal.ZERO);
+            balance.setIncomeCount(income != null ? income.getCount() : 0L);
+            balance.setTotalExpense(expense != null ? expense.getTotal() : BigDecimal.ZERO);
+            balance.setExpenseCount(expense != null ? expense.getCount() : 0L);
+            balance.setUpdatedAt(LocalDateTime.now());
+            profileBalanceRepository.save(balance);
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
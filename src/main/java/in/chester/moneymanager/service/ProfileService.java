@@ -4,6 +4,8 @@ import in.chester.moneymanager.dto.AuthDTO;
 import in.chester.moneymanager.dto.ProfileDTO;
 import in.chester.moneymanager.entity.ProfileEntity;
 import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.security.AppUserPrincipal;
+import in.chester.moneymanager.security.ProfileCache;
 import in.chester.moneymanager.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,10 +13,10 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Map;
 import java.util.UUID;
@@ -24,23 +26,31 @@ import java.util.UUID;
 public class ProfileService {
 
     private final ProfileRepository profileRepository;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final EmailTemplateService emailTemplateService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final ProfileCache profileCache;
+    private final ShardDirectory shardDirectory;
+    private final TimezoneCache timezoneCache;
 
     @Value("${app.activation.url}")
     private String activationUrl;
 
+    @Transactional
     public ProfileDTO registerProfile(ProfileDTO profileDTO) {
         ProfileEntity newProfile = convertToEntity(profileDTO);
         newProfile.setActivationToken(UUID.randomUUID().toString());
         newProfile = profileRepository.save(newProfile);
-        // send activation email
+        profileCache.evict(newProfile.getEmail());
+        shardDirectory.mirrorProfile(newProfile);
+        timezoneCache.add(newProfile.getTimezone());
+        // queue activation email; the outbox worker sends it once the profile is committed
         String activationLink = activationUrl + "/api/v1.0/activate?token=" + newProfile.getActivationToken();
         String subject = "Activate your Money Manager account";
-        String body = "Click on the following link to activate your account: " + activationLink;
-        emailService.sendEmail(newProfile.getEmail(), subject, body);
+        String body = emailTemplateService.renderActivation(activationLink);
+        emailOutboxService.enqueue(newProfile.getEmail(), subject, body);
         return convertToDTO(newProfile);
     }
 
@@ -51,6 +61,7 @@ public class ProfileService {
                 .email(profileDTO.getEmail())
                 .password(passwordEncoder.encode(profileDTO.getPassword()))
                 .profileImgUrl(profileDTO.getProfileImgUrl())
+                .timezone(profileDTO.getTimezone())
                 .createdAt(profileDTO.getCreatedAt())
                 .updatedAt(profileDTO.getUpdatedAt())
                 .build();
@@ -62,33 +73,69 @@ public class ProfileService {
                 .fullName(profileEntity.getFullName())
                 .email(profileEntity.getEmail())
                 .profileImgUrl(profileEntity.getProfileImgUrl())
+                .timezone(profileEntity.getTimezone())
                 .createdAt(profileEntity.getCreatedAt())
                 .updatedAt(profileEntity.getUpdatedAt())
                 .build();
     }
 
+    // profile rows are written in the directory, then mirrored to the home shard
     public boolean activateProfile(String activationToken) {
-        return profileRepository.findByActivationToken(activationToken)
+        return shardDirectory.inDirectory(() -> profileRepository.findByActivationToken(activationToken)
                 .map(profile -> {
                     profile.setIsActive(true);
                     profileRepository.save(profile);
+                    profileCache.evict(profile.getEmail());
+                    shardDirectory.mirrorProfile(profile);
                     return true;
                 })
-                .orElse(false);
+                .orElse(false));
+    }
+
+    public ProfileDTO updateTimezone(String timezone) {
+        Long profileId = getCurrentProfileId();
+        ProfileEntity profile = shardDirectory.inDirectory(() -> {
+            ProfileEntity current = profileRepository.findById(profileId)
+                    .orElseThrow(() -> new UsernameNotFoundException("Profile not found with id: " + profileId));
+            current.setTimezone(timezone);
+            current = profileRepository.save(current);
+            shardDirectory.mirrorProfile(current);
+            return current;
+        });
+        profileCache.evict(profile.getEmail());
+        timezoneCache.add(timezone);
+        return convertToDTO(profile);
     }
 
     public boolean isAccountActive(String email) {
-        return profileRepository.findByEmail(email)
-                .map(ProfileEntity::getIsActive)
+        return profileCache.find(email)
+                .map(AppUserPrincipal::isActive)
                 .orElse(false);
     }
 
     public ProfileEntity getCurrentProfile() {
+        Long profileId = getCurrentProfileId();
+        return profileRepository.findById(profileId)
+                .orElseThrow(() -> new UsernameNotFoundException("Profile not found with id: " + profileId));
+    }
+
+    // Id of the authenticated profile, read from the principal without a database lookup
+    public Long getCurrentProfileId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return profileRepository.findByEmail(authentication.getName())
+        if (authentication.getPrincipal() instanceof AppUserPrincipal principal) {
+            return principal.getId();
+        }
+        return profileCache.find(authentication.getName())
+                .map(AppUserPrincipal::getId)
                 .orElseThrow(() -> new UsernameNotFoundException("Profile not found with email: " + authentication.getName()));
     }
 
+    // Uninitialized reference to the current profile, for use as a foreign key on new rows
+    public ProfileEntity getCurrentProfileReference() {
+        return profileRepository.getReferenceById(getCurrentProfileId());
+    }
+
+    @Transactional(readOnly = true)
     public ProfileDTO getPublicProfile(String email) {
         ProfileEntity currentUser = null;
         if (email == null) {
@@ -103,6 +150,7 @@ public class ProfileService {
                 .fullName(currentUser.getFullName())
                 .email(currentUser.getEmail())
                 .profileImgUrl(currentUser.getProfileImgUrl())
+                .timezone(currentUser.getTimezone())
                 .createdAt(currentUser.getCreatedAt())
                 .updatedAt(currentUser.getUpdatedAt())
                 .build();
@@ -0,0 +1,182 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.entity.ProfileEntity;
+import in.chester.moneymanager.entity.ProfileMirrorEntity;
+import in.chester.moneymanager.repository.ProfileMirrorRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.util.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Where a profile's data lives. The directory database owns every profile row, the outbox and
+// anything not tied to one profile; incomes, expenses, categories and their aggregates live on
+// shard profileId mod N, next to a mirrored copy of the owning profile row.
+// With no shards configured everything is in the directory and these methods are pass-throughs.
+@Service
+@Slf4j
+public class ShardDirectory {
+
+    private static final int MIRROR_RETRY_BATCH = 500;
+
+    private final int shardCount;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final ThreadPoolTaskExecutor shardJobExecutor;
+    private final ProfileRepository profileRepository;
+    private final ProfileMirrorRepository profileMirrorRepository;
+    private final Duration mirrorRetryInterval;
+
+    public ShardDirectory(@Value("${app.sharding.urls:}") List<String> shardUrls,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ThreadPoolTaskExecutor shardJobExecutor,
+                          ProfileRepository profileRepository,
+                          ProfileMirrorRepository profileMirrorRepository,
+                          @Value("${app.sharding.mirror-retry-interval:1m}") Duration mirrorRetryInterval) {
+        this.shardCount = shardUrls.size();
+        this.jdbcTemplate = jdbcTemplate;
+        this.profileRepository = profileRepository;
+        this.profileMirrorRepository = profileMirrorRepository;
+        this.mirrorRetryInterval = mirrorRetryInterval;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardJobExecutor = shardJobExecutor;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 0;
+    }
+
+    // Home shard of a profile, or null (the directory) when sharding is off
+    public Integer shardOf(Long profileId) {
+        return isSharded() ? (int) Math.floorMod(profileId, (long) shardCount) : null;
+    }
+
+    // Runs a cross-shard job once per shard in parallel, each run bound to its shard
+    public void forEachShard(Runnable task) {
+        if (!isSharded()) {
+            task.run();
+            return;
+        }
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            runs.add(CompletableFuture.runAsync(() -> ShardContext.runOn(target, task), shardJobExecutor));
+        }
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).join();
+    }
+
+    // Walks every profile id on each shard in keyset pages and hands each page to the task in its own transaction
+    public void forEachProfilePage(String job, int pageSize, Consumer<List<Long>> pageTask) {
+        forEachShard(() -> {
+            log.info("Job started: {}", job);
+            long lastId = 0L;
+            int processed = 0;
+            List<Long> profileIds;
+            do {
+                profileIds = profileRepository.findIdsAfter(lastId, PageRequest.of(0, pageSize));
+                if (!profileIds.isEmpty()) {
+                    List<Long> page = profileIds;
+                    newTransaction.executeWithoutResult(status -> pageTask.accept(page));
+                    lastId = profileIds.get(profileIds.size() - 1);
+                    processed += profileIds.size();
+                }
+            } while (profileIds.size() == pageSize);
+            log.info("Job completed: {}, {} profiles", job, processed);
+        });
+    }
+
+    // Runs the work in its own directory transaction, whatever shard the caller is bound to
+    public <T> T inDirectory(Supplier<T> work) {
+        return ShardContext.callOn(null, () -> newTransaction.execute(status -> work.get()));
+    }
+
+    // Queues the profile's directory row for its home shard in the caller's directory transaction and
+    // copies it once that commits. A copy that fails stays queued for retryMirrors.
+    public void mirrorProfile(ProfileEntity profile) {
+        if (!isSharded()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (profileMirrorRepository.touch(profile.getId(), now) == 0) {
+            profileMirrorRepository.insertIfAbsent(profile.getId(), now);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mirrorQueued(profile.getId());
+                }
+            });
+        } else {
+            mirrorQueued(profile.getId());
+        }
+    }
+
+    // Copies profiles whose mirror failed after commit, e.g. because their shard was down.
+    // Rows younger than the interval are left to the copy their own transaction scheduled.
+    @Scheduled(fixedDelayString = "${app.sharding.mirror-retry-interval:1m}")
+    public void retryMirrors() {
+        if (!isSharded()) {
+            return;
+        }
+        List<ProfileMirrorEntity> queued = inDirectory(() -> profileMirrorRepository.findByQueuedAtBeforeOrderByQueuedAt(
+                LocalDateTime.now().minus(mirrorRetryInterval), PageRequest.of(0, MIRROR_RETRY_BATCH)));
+        for (ProfileMirrorEntity mirror : queued) {
+            mirrorQueued(mirror.getProfileId());
+        }
+    }
+
+    // Copies the profile's current directory row and clears its queue entry unless a newer change was queued
+    private void mirrorQueued(Long profileId) {
+        try {
+            inDirectory(() -> profileMirrorRepository.findById(profileId)
+                    .map(mirror -> {
+                        profileRepository.findById(profileId).ifPresent(this::copyToHomeShard);
+                        return profileMirrorRepository.deleteCopied(profileId, mirror.getQueuedAt());
+                    })
+                    .orElse(0));
+        } catch (RuntimeException e) {
+            // the change is committed in the directory and stays queued; retryMirrors copies it again
+            log.error("Could not mirror profile {} to shard {}", profileId, shardOf(profileId), e);
+        }
+    }
+
+    private void copyToHomeShard(ProfileEntity profile) {
+        ShardContext.runOn(shardOf(profile.getId()), () -> newTransaction.executeWithoutResult(status -> {
+            Timestamp updatedAt = Timestamp.valueOf(profile.getUpdatedAt() != null ? profile.getUpdatedAt() : LocalDateTime.now());
+            int updated = jdbcTemplate.update("UPDATE profiles_tbl SET full_name = ?, email = ?, password = ?, " +
+                            "profile_img_url = ?, timezone = ?, updated_at = ?, is_active = ?, activation_token = ? WHERE id = ?",
+                    profile.getFullName(), profile.getEmail(), profile.getPassword(), profile.getProfileImgUrl(),
+                    profile.getTimezone(), updatedAt, profile.getIsActive(), profile.getActivationToken(), profile.getId());
+            if (updated == 0) {
+                Timestamp createdAt = profile.getCreatedAt() != null ? Timestamp.valueOf(profile.getCreatedAt()) : updatedAt;
+                jdbcTemplate.update("INSERT INTO profiles_tbl (id, full_name, email, password, profile_img_url, timezone, " +
+                                "created_at, updated_at, is_active, activation_token) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        profile.getId(), profile.getFullName(), profile.getEmail(), profile.getPassword(),
+                        profile.getProfileImgUrl(), profile.getTimezone(), createdAt, updatedAt, profile.getIsActive(),
+                        profile.getActivationToken());
+            }
+        }));
+        log.debug("Mirrored profile {} to shard {}", profile.getId(), shardOf(profile.getId()));
+    }
+}
@@ -0,0 +1,53 @@
+package in.chester.moneymanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.util.ShardContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// TTL-bounded cache of the distinct profile timezones per shard, read by the notification scheduler on every tick.
+// A profile taking a timezone adds it through add(), so a set may keep a zone nobody uses any more until it expires;
+// a zone that only ever stops being used costs an empty slot query, never a missed email.
+@Component
+public class TimezoneCache {
+
+    // key used when the caller is not bound to a shard
+    private static final int UNSHARDED = -1;
+
+    private final ProfileRepository profileRepository;
+    private final String defaultTimezone;
+    private final Cache<Integer, Set<String>> cache;
+
+    public TimezoneCache(ProfileRepository profileRepository,
+                         @Value("${app.notification.default-timezone:Asia/Kolkata}") String defaultTimezone,
+                         @Value("${app.notification.timezone-cache-ttl:1h}") Duration ttl) {
+        this.profileRepository = profileRepository;
+        this.defaultTimezone = defaultTimezone;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // zones of the profiles on the shard the caller is bound to
+    public Set<String> findAll() {
+        Integer shard = ShardContext.current();
+        return Set.copyOf(cache.get(shard != null ? shard : UNSHARDED, key -> {
+            Set<String> zones = ConcurrentHashMap.newKeySet();
+            zones.addAll(profileRepository.findDistinctTimezones(defaultTimezone));
+            return zones;
+        }));
+    }
+
+    // The profile's home shard is not known here, so the zone goes into every loaded set
+    public void add(String zone) {
+        if (zone != null) {
+            cache.asMap().values().forEach(zones -> zones.add(zone));
+        }
+    }
+}
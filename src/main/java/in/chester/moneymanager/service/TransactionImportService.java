@@ -0,0 +1,258 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.dto.CategoryDTO;
+import in.chester.moneymanager.dto.ImportErrorDTO;
+import in.chester.moneymanager.dto.ImportResultDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bulk CSV import. The file is parsed record by record and valid rows are written with JDBC batch
+// inserts, one transaction per batch, together with the matching balance and rollup deltas.
+// A batch the database rejects is retried row by row, so one bad row does not cost the others.
+// The ledger tables keep their identity keys; plain JDBC batching does not need the generated ids
+// back, which is what keeps Hibernate from batching IDENTITY inserts.
+// Expected header: name,amount,category[,date][,icon] with dates as yyyy-MM-dd.
+@Service
+@Slf4j
+public class TransactionImportService {
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreHeaderCase(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+
+    // column sizes of the ledger tables: Hibernate's varchar(255) and numeric(38,2) defaults
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int AMOUNT_SCALE = 2;
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 36;
+
+    private final CategoryCache categoryCache;
+    private final ProfileService profileService;
+    private final ProfileBalanceService profileBalanceService;
+    private final CategoryRollupService categoryRollupService;
+    private final DataVersionService dataVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    public TransactionImportService(CategoryCache categoryCache,
+                                    ProfileService profileService,
+                                    ProfileBalanceService profileBalanceService,
+                                    CategoryRollupService categoryRollupService,
+                                    DataVersionService dataVersionService,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.categoryCache = categoryCache;
+        this.profileService = profileService;
+        this.profileBalanceService = profileBalanceService;
+        this.categoryRollupService = categoryRollupService;
+        this.dataVersionService = dataVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportResultDTO importExpensesForCurrentUser(InputStream in) throws IOException {
+        return importRows(CategoryRollupService.TYPE_EXPENSE, "expenses_tbl", in);
+    }
+
+    public ImportResultDTO importIncomesForCurrentUser(InputStream in) throws IOException {
+        return importRows(CategoryRollupService.TYPE_INCOME, "incomes_tbl", in);
+    }
+
+    private ImportResultDTO importRows(String type, String table, InputStream in) throws IOException {
+        Long profileId = profileService.getCurrentProfileId();
+        // resolved once per import instead of once per row
+        long version = dataVersionService.currentVersion(profileId);
+        Map<String, Long> categoryIds = new HashMap<>();
+        for (CategoryDTO category : categoryCache.findByType(profileId, type, version)) {
+            categoryIds.put(category.getName().toLowerCase(), category.getId());
+        }
+
+        ImportResultDTO result = new ImportResultDTO();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+             CSVParser parser = CSV_FORMAT.parse(reader)) {
+            for (String column : List.of("name", "amount", "category")) {
+                if (!parser.getHeaderMap().containsKey(column)) {
+                    throw new IllegalArgumentException("Missing column: " + column);
+                }
+            }
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            for (CSVRecord record : parser) {
+                try {
+                    batch.add(parseRow(record, categoryIds));
+                } catch (IllegalArgumentException e) {
+                    reject(result, record.getRecordNumber(), e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    insertBatch(type, table, profileId, batch, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(type, table, profileId, batch, result);
+            }
+        }
+        log.info("Imported {} {} rows for profile {}, {} rejected", result.getImported(), type, profileId, result.getFailed());
+        return result;
+    }
+
+    private ImportRow parseRow(CSVRecord record, Map<String, Long> categoryIds) {
+        String name = value(record, "name");
+        if (name == null) {
+            throw new IllegalArgumentException("name is required");
+        }
+        checkLength("name", name);
+        String icon = value(record, "icon");
+        if (icon != null) {
+            checkLength("icon", icon);
+        }
+        String amountText = value(record, "amount");
+        if (amountText == null) {
+            throw new IllegalArgumentException("amount is required");
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(amountText);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amountText);
+        }
+        // the column would round extra decimals, leaving the stored row out of step with the balance delta
+        if (amount.stripTrailingZeros().scale() > AMOUNT_SCALE
+                || amount.precision() - amount.scale() > MAX_AMOUNT_INTEGER_DIGITS) {
+            throw new IllegalArgumentException("Invalid amount: " + amountText);
+        }
+        String category = value(record, "category");
+        Long categoryId = category != null ? categoryIds.get(category.toLowerCase()) : null;
+        if (categoryId == null) {
+            throw new IllegalArgumentException("Unknown category: " + category);
+        }
+        String dateText = value(record, "date");
+        LocalDate date;
+        try {
+            date = dateText != null ? LocalDate.parse(dateText) : LocalDate.now();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + dateText);
+        }
+        return new ImportRow(record.getRecordNumber(), name, icon, date, amount, categoryId);
+    }
+
+    private static void checkLength(String column, String value) {
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    private void insertBatch(String type, String table, Long profileId, List<ImportRow> batch, ImportResultDTO result) {
+        try {
+            save(type, table, profileId, batch);
+            result.setImported(result.getImported() + batch.size());
+        } catch (RuntimeException e) {
+            // the batch rolled back, e.g. on a category deleted since the import started;
+            // save its rows one by one so only the ones the database refuses are rejected.
+            // The cause stays in the log: driver messages can name tables, constraints and values.
+            log.warn("Import batch of {} {} rows failed for profile {}, retrying row by row", batch.size(), type, profileId, e);
+            for (ImportRow row : batch) {
+                try {
+                    save(type, table, profileId, List.of(row));
+                    result.setImported(result.getImported() + 1);
+                } catch (RuntimeException rowFailure) {
+                    log.warn("Import row {} failed for profile {}", row.recordNumber(), profileId, rowFailure);
+                    reject(result, row.recordNumber(), "Could not be saved");
+                }
+            }
+        }
+    }
+
+    private void save(String type, String table, Long profileId, List<ImportRow> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate("INSERT INTO " + table +
+                            " (name, icon, date, amount, category_id, profile_id, created_at, updated_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    rows, rows.size(), (ps, row) -> {
+                        ps.setString(1, row.name());
+                        ps.setString(2, row.icon());
+                        ps.setDate(3, Date.valueOf(row.date()));
+                        ps.setBigDecimal(4, row.amount());
+                        ps.setLong(5, row.categoryId());
+                        ps.setLong(6, profileId);
+                        ps.setTimestamp(7, now);
+                        ps.setTimestamp(8, now);
+                    });
+            applyAggregates(type, profileId, rows);
+        });
+    }
+
+    // one balance delta per batch, one rollup delta per (category, month) in the batch and one data version bump
+    private void applyAggregates(String type, Long profileId, List<ImportRow> batch) {
+        BigDecimal total = BigDecimal.ZERO;
+        Map<RollupKey, BigDecimal> amounts = new HashMap<>();
+        Map<RollupKey, Long> counts = new HashMap<>();
+        for (ImportRow row : batch) {
+            total = total.add(row.amount());
+            RollupKey key = new RollupKey(row.categoryId(), row.date().withDayOfMonth(1));
+            amounts.merge(key, row.amount(), BigDecimal::add);
+            counts.merge(key, 1L, Long::sum);
+        }
+        if (CategoryRollupService.TYPE_INCOME.equals(type)) {
+            profileBalanceService.applyDelta(profileId, total, batch.size(), BigDecimal.ZERO, 0);
+        } else {
+            profileBalanceService.applyDelta(profileId, BigDecimal.ZERO, 0, total, batch.size());
+        }
+        amounts.forEach((key, amount) -> categoryRollupService.applyDelta(type, profileId, key.categoryId(),
+                key.monthStart(), amount, counts.get(key)));
+        dataVersionService.bump(profileId);
+    }
+
+    private void reject(ImportResultDTO result, long row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ImportErrorDTO(row, message));
+        }
+    }
+
+    private static String value(CSVRecord record, String column) {
+        if (!record.isMapped(column) || !record.isSet(column)) {
+            return null;
+        }
+        String value = record.get(column);
+        return value.isEmpty() ? null : value;
+    }
+
+    private record ImportRow(long recordNumber, String name, String icon, LocalDate date, BigDecimal amount, Long categoryId) {
+    }
+
+    private record RollupKey(Long categoryId, LocalDate monthStart) {
+    }
+}
@@ -0,0 +1,105 @@
+package in.chester.moneymanager.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// A template split once into static fragments and {{slot}} positions. Rendering appends
+// fragment 0, slot 0, fragment 1, ... to the caller's buffer; HTML templates escape slot values.
+public final class EmailTemplate {
+
+    private final String[] fragments;
+    private final boolean html;
+    private final int staticLength;
+
+    private EmailTemplate(String[] fragments, boolean html) {
+        this.fragments = fragments;
+        this.html = html;
+        int length = 0;
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        this.staticLength = length;
+    }
+
+    // Slots named in constants are filled in now; the remaining slots must appear exactly in slotNames order.
+    public static EmailTemplate compile(String source, boolean html, Map<String, String> constants, String... slotNames) {
+        List<String> fragments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                current.append(source, position, source.length());
+                break;
+            }
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed slot at offset " + open);
+            }
+            current.append(source, position, open);
+            String slot = source.substring(open + 2, close).trim();
+            if (constants.containsKey(slot)) {
+                appendValue(current, constants.get(slot), html);
+            } else {
+                fragments.add(current.toString());
+                slots.add(slot);
+                current.setLength(0);
+            }
+            position = close + 2;
+        }
+        fragments.add(current.toString());
+        if (!slots.equals(List.of(slotNames))) {
+            throw new IllegalArgumentException("Template slots " + slots + " do not match " + List.of(slotNames));
+        }
+        return new EmailTemplate(fragments.toArray(new String[0]), html);
+    }
+
+    public int slotCount() {
+        return fragments.length - 1;
+    }
+
+    // characters of static text, for presizing buffers
+    public int staticLength() {
+        return staticLength;
+    }
+
+    public void render(StringBuilder out, Object... values) {
+        if (values.length != slotCount()) {
+            throw new IllegalArgumentException("Expected " + slotCount() + " values but got " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            out.append(fragments[i]);
+            writeValue(out, values[i]);
+        }
+        out.append(fragments[values.length]);
+    }
+
+    // For templates whose slots are filled piecewise, e.g. a slot holding rows of another template
+    public void writeFragment(StringBuilder out, int index) {
+        out.append(fragments[index]);
+    }
+
+    public void writeValue(StringBuilder out, Object value) {
+        appendValue(out, value == null ? "" : value.toString(), html);
+    }
+
+    private static void appendValue(StringBuilder out, String value, boolean html) {
+        if (!html) {
+            out.append(value);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
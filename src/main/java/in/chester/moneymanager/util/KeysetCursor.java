@@ -0,0 +1,59 @@
+package in.chester.moneymanager.util;
+
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+// Position after the last row of a keyset page: the sort it belongs to, the last sort value and the last id.
+// Clients only see the opaque, URL-safe token produced by encode().
+@Value
+public class KeysetCursor {
+
+    private static final String VERSION = "1";
+
+    String sortField;
+    Sort.Direction direction;
+    String value;
+    Long id;
+
+    public String encode() {
+        String payload = VERSION + "\n" + sortField + "\n" + direction.name() + "\n" + id + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // the value goes last so it may contain any character
+            String[] parts = payload.split("\n", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            KeysetCursor cursor = new KeysetCursor(parts[1], Sort.Direction.valueOf(parts[2]), parts[4], Long.valueOf(parts[3]));
+            // a tampered value is rejected here rather than when the query binds it
+            cursor.sortValue();
+            return cursor;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    // The last sort value typed like the sort column, ready to bind to the seek predicate
+    public Object sortValue() {
+        return switch (sortField) {
+            case "date" -> LocalDate.parse(value);
+            case "amount" -> new BigDecimal(value);
+            case "name" -> value;
+            default -> throw new IllegalArgumentException("Invalid sortField: " + sortField);
+        };
+    }
+
+    public boolean matches(String sortField, Sort.Direction direction) {
+        return this.sortField.equals(sortField) && this.direction == direction;
+    }
+}
@@ -0,0 +1,108 @@
+package in.chester.moneymanager.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Counts the SQL statements Hibernate prepares on the current thread while a scope (an HTTP request or a
+// scheduled job) is open. Statements issued outside a scope, e.g. on worker pools, are not counted.
+public final class QueryBudget {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryBudget() {
+    }
+
+    // Returns null when a scope is already open on this thread; the outer scope keeps counting.
+    public static Scope open(String name, int budget, boolean failOnViolation) {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        Scope scope = new Scope(name, budget, failOnViolation);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static class Inspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            Scope scope = CURRENT.get();
+            if (scope != null) {
+                scope.record(sql);
+            }
+            return sql;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private String name;
+        private final int budget;
+        private final boolean failOnViolation;
+        private final Map<String, Integer> statements = new HashMap<>();
+        private int count;
+
+        private Scope(String name, int budget, boolean failOnViolation) {
+            this.name = name;
+            this.budget = budget;
+            this.failOnViolation = failOnViolation;
+        }
+
+        private void record(String sql) {
+            count++;
+            statements.merge(sql, 1, Integer::sum);
+            if (failOnViolation && count > budget) {
+                throw new QueryBudgetExceededException(name + " exceeded its budget of " + budget
+                        + " statements; most repeated: " + mostRepeated(3));
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // HTTP scopes learn their route only after the handler has been resolved
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getBudget() {
+            return budget;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public boolean isExceeded() {
+            return count > budget;
+        }
+
+        // the statements run most often, which is where an N+1 shows up
+        public List<String> mostRepeated(int limit) {
+            return statements.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 1)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                    .limit(limit)
+                    .map(entry -> entry.getValue() + "x " + entry.getKey())
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public void close() {
+            CURRENT.remove();
+        }
+    }
+
+    public static class QueryBudgetExceededException extends RuntimeException {
+
+        public QueryBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
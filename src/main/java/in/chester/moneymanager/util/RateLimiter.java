@@ -0,0 +1,31 @@
+package in.chester.moneymanager.util;
+
+import java.util.concurrent.TimeUnit;
+
+// Spaces callers out to at most permitsPerSecond, shared across threads. Waiting happens outside the lock.
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeAt = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long slot = Math.max(nextFreeAt, now);
+        nextFreeAt = slot + intervalNanos;
+        return slot - now;
+    }
+}
@@ -0,0 +1,80 @@
+package in.chester.moneymanager.util;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// When the calling client last committed a change, for ReplicaRoutingDataSource's read-your-writes window.
+// The time travels with the client in a cookie rather than living in one instance's memory, so it holds
+// whichever instance the load balancer sends the next request to; instances compare it with their own clock.
+// Outside a request, e.g. in scheduled jobs, nothing is recorded.
+public final class ReadYourWrites {
+
+    public static final String COOKIE = "last_write";
+
+    private static final String ATTRIBUTE = ReadYourWrites.class.getName();
+
+    private ReadYourWrites() {
+    }
+
+    // Records the write once the current transaction commits; a rollback leaves the client's reads alone
+    public static void afterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record();
+            }
+        });
+    }
+
+    // Epoch millis of the client's last committed write, from this request or the cookie it sent; null if none
+    public static Long lastWrite() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        if (attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long written) {
+            return written;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void record() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        attributes.setAttribute(ATTRIBUTE, now, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(now))
+                    .path("/")
+                    .httpOnly(true)
+                    .build()
+                    .toString());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package in.chester.moneymanager.util;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+// Sends read-only transactions to the replica and everything else to the primary.
+// A client whose change committed within readYourWritesWindow keeps reading from the primary
+// (see ReadYourWrites), so replication lag never hides its own changes.
+// Must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only known once the
+// transaction has started, after the transaction manager has asked for a connection.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final long readYourWritesWindowMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWritesWindow) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.readYourWritesWindowMillis = readYourWritesWindow.toMillis();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        Long lastWrite = ReadYourWrites.lastWrite();
+        if (lastWrite != null && System.currentTimeMillis() - lastWrite < readYourWritesWindowMillis) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
@@ -0,0 +1,48 @@
+package in.chester.moneymanager.util;
+
+import java.util.function.Supplier;
+
+// The shard the current thread's database work goes to; null means the directory database.
+// Bound per request for the authenticated profile and per shard for cross-shard jobs.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    // Binds the shard (null for the directory) and returns the previous binding for restore()
+    public static Integer bind(Integer shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public static <T> T callOn(Integer shard, Supplier<T> task) {
+        Integer previous = bind(shard);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runOn(Integer shard, Runnable task) {
+        callOn(shard, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
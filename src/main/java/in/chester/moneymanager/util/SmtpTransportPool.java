@@ -0,0 +1,87 @@
+package in.chester.moneymanager.util;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Bounded pool of connected, authenticated SMTP transports. A borrower gets exclusive use of one transport
+// and hands it back with release(); broken transports are closed instead of being returned to the pool.
+@Slf4j
+public class SmtpTransportPool implements AutoCloseable {
+
+    private final Session session;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final long idleCheckNanos;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+
+    public SmtpTransportPool(Session session, String protocol, String host, int port, String username, String password,
+                             int maxSize, long idleCheckMillis) {
+        this.session = session;
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.idleCheckNanos = TimeUnit.MILLISECONDS.toNanos(idleCheckMillis);
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    public Transport borrow() throws MessagingException, InterruptedException {
+        permits.acquire();
+        try {
+            PooledTransport pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                // the server may have dropped a connection that sat idle; isConnected() sends a NOOP
+                if (System.nanoTime() - pooled.releasedAt < idleCheckNanos || pooled.transport.isConnected()) {
+                    return pooled.transport;
+                }
+                closeQuietly(pooled.transport);
+            }
+            Transport transport = session.getTransport(protocol);
+            transport.connect(host, port, username, password);
+            return transport;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(Transport transport, boolean broken) {
+        if (broken || !transport.isConnected()) {
+            closeQuietly(transport);
+        } else {
+            idle.offerFirst(new PooledTransport(transport, System.nanoTime()));
+        }
+        permits.release();
+    }
+
+    @Override
+    public void close() {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled.transport);
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP transport: {}", e.getMessage());
+        }
+    }
+
+    private record PooledTransport(Transport transport, long releasedAt) {
+    }
+}
@@ -0,0 +1,18 @@
+package in.chester.moneymanager.util;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+// Claims of a token whose signature has already been checked; safe to share between requests.
+@Value
+public class VerifiedToken {
+
+    String subject;
+    Instant issuedAt;
+    Instant expiration;
+
+    public boolean isExpired() {
+        return !expiration.isAfter(Instant.now());
+    }
+}
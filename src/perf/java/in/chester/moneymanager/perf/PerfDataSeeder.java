@@ -0,0 +1,96 @@
+package in.chester.moneymanager.perf;
+
+import in.chester.moneymanager.entity.CategoryEntity;
+import in.chester.moneymanager.entity.ProfileEntity;
+import in.chester.moneymanager.repository.CategoryRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.service.CategoryRollupService;
+import in.chester.moneymanager.service.ProfileBalanceService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic data: active profiles with one income and one expense category each, transactions spread
+// over the last year, and the balance and rollup tables rebuilt from them as the nightly jobs would.
+class PerfDataSeeder {
+
+    static final String PASSWORD = "perf-password";
+
+    record SeededProfile(Long id, String email, Long expenseCategoryId) {
+    }
+
+    private static final String[] NAMES = {"Groceries", "Rent", "Fuel", "Coffee", "Salary", "Books", "Gym", "Travel"};
+
+    private final ApplicationContext context;
+    private final Random random = new Random(42);
+
+    PerfDataSeeder(ApplicationContext context) {
+        this.context = context;
+    }
+
+    List<SeededProfile> seed(int profiles, int transactionsPerProfile) {
+        ProfileRepository profileRepository = context.getBean(ProfileRepository.class);
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // connections come out of the pool with auto-commit off, so plain JDBC writes need a transaction
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+
+        List<SeededProfile> seeded = new ArrayList<>(profiles);
+        for (int p = 0; p < profiles; p++) {
+            ProfileEntity profile = profileRepository.save(ProfileEntity.builder()
+                    .fullName("Perf User " + p)
+                    .email("perf" + p + "@example.com")
+                    .password(passwordHash)
+                    .isActive(true)
+                    .build());
+            CategoryEntity income = categoryRepository.save(CategoryEntity.builder()
+                    .name("Income").type("income").icon("bank").profile(profile).build());
+            CategoryEntity expense = categoryRepository.save(CategoryEntity.builder()
+                    .name("Expense").type("expense").icon("cart").profile(profile).build());
+            transactionTemplate.executeWithoutResult(status -> {
+                insertTransactions(jdbcTemplate, "incomes_tbl", profile.getId(), income.getId(), transactionsPerProfile / 4);
+                insertTransactions(jdbcTemplate, "expenses_tbl", profile.getId(), expense.getId(),
+                        transactionsPerProfile - transactionsPerProfile / 4);
+            });
+            seeded.add(new SeededProfile(profile.getId(), profile.getEmail(), expense.getId()));
+        }
+        context.getBean(ProfileBalanceService.class).reconcileAll();
+        context.getBean(CategoryRollupService.class).rebuildAll();
+        return seeded;
+    }
+
+    private void insertTransactions(JdbcTemplate jdbcTemplate, String table, Long profileId, Long categoryId, int count) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = today.minusDays(random.nextInt(365));
+            Timestamp created = Timestamp.valueOf(LocalDateTime.of(date, LocalTime.of(random.nextInt(24), random.nextInt(60))));
+            rows.add(new Object[]{
+                    NAMES[random.nextInt(NAMES.length)] + " " + i,
+                    "icon",
+                    Date.valueOf(date),
+                    BigDecimal.valueOf(random.nextInt(500_000), 2),
+                    categoryId,
+                    profileId,
+                    created,
+                    created
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + table +
+                " (name, icon, date, amount, category_id, profile_id, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
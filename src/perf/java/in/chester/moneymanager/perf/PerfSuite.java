@@ -0,0 +1,280 @@
+package in.chester.moneymanager.perf;
+
+import in.chester.moneymanager.MoneyManagerApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end throughput check: boots the application on an in-memory H2 database in PostgreSQL mode,
+ * seeds synthetic profiles and transactions, drives concurrent clients through the main endpoints and
+ * compares p50/p99 latency, SQL statements per request and total throughput with perf.properties.
+ * Exits non-zero when a budget is exceeded so that {@code mvn -Pperf verify} fails.
+ */
+public class PerfSuite {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final Properties config;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private String baseUrl;
+
+    private PerfSuite(Properties config) {
+        this.config = config;
+        for (String endpoint : List.of("login", "dashboard", "filter", "expense-create", "income-crm")) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties config = new Properties();
+        try (InputStream in = PerfSuite.class.getResourceAsStream("/perf.properties")) {
+            config.load(in);
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("perf.") || key.startsWith("budget.")) {
+                config.setProperty(key, System.getProperty(key));
+            }
+        }
+        int exitCode;
+        try (ConfigurableApplicationContext context = boot()) {
+            exitCode = new PerfSuite(config).run(context);
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext boot() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", "perf");
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:perf;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.generate_statistics", "true");
+        properties.put("logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener", "WARN");
+        properties.put("spring.mail.host", "localhost");
+        properties.put("spring.mail.username", "perf");
+        properties.put("spring.mail.password", "perf");
+        properties.put("spring.mail.properties.mail.smtp.from", "perf@example.com");
+        properties.put("jwt.secret.key", "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0");
+        properties.put("money.manager.frontend.url", "http://localhost");
+        properties.put("app.activation.url", "http://localhost");
+        // keep background jobs out of the measurements and statement counts
+        properties.put("app.notification.reminder-hour", "-1");
+        properties.put("app.notification.summary-hour", "-1");
+        properties.put("app.email.outbox.poll-interval", "1h");
+        properties.put("app.jobs.recovery-interval", "1h");
+        // a request over app.query-budget.max-per-request fails with a 500 instead of only logging
+        properties.put("app.query-budget.fail-on-violation", "true");
+        // seeding runs the nightly rebuilds over every synthetic profile at once
+        properties.put("app.query-budget.max-per-job", "1000000");
+        // passed as command line arguments so they win over application.properties and its active profile
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(MoneyManagerApplication.class).run(args);
+    }
+
+    private int run(ConfigurableApplicationContext context) throws Exception {
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + context.getEnvironment().getProperty("server.servlet.context-path", "");
+        int profiles = intConfig("perf.profiles");
+        int transactions = intConfig("perf.transactions-per-profile");
+        System.out.printf("Seeding %d profiles x %d transactions%n", profiles, transactions);
+        List<PerfDataSeeder.SeededProfile> seeded = new PerfDataSeeder(context).seed(profiles, transactions);
+
+        int clients = intConfig("perf.clients");
+        List<Client> pool = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            PerfDataSeeder.SeededProfile profile = seeded.get(i % seeded.size());
+            pool.add(new Client(profile, login(profile.email())));
+        }
+
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        probeStatements(pool.get(0), statistics);
+
+        drive(pool, intConfig("perf.warmup-seconds"));
+        stats.values().forEach(EndpointStats::reset);
+        int seconds = intConfig("perf.duration-seconds");
+        long started = System.nanoTime();
+        drive(pool, seconds);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        return report(elapsedSeconds);
+    }
+
+    // Sequential requests with statistics cleared in between, so statement counts belong to one endpoint.
+    private void probeStatements(Client client, Statistics statistics) throws Exception {
+        int requests = intConfig("perf.probe-requests");
+        for (String endpoint : stats.keySet()) {
+            statistics.clear();
+            for (int i = 0; i < requests; i++) {
+                call(endpoint, client);
+            }
+            stats.get(endpoint).statementsPerRequest(statistics.getPrepareStatementCount() / (double) requests);
+        }
+    }
+
+    private void drive(List<Client> pool, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(pool.size());
+        for (Client client : pool) {
+            executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    String endpoint = pickEndpoint();
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = call(endpoint, client);
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    stats.get(endpoint).record(System.nanoTime() - start, ok);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    // read-heavy mix: dashboard 30%, filter 25%, income list 25%, create 15%, login 5%
+    private static String pickEndpoint() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        if (roll < 30) return "dashboard";
+        if (roll < 55) return "filter";
+        if (roll < 80) return "income-crm";
+        if (roll < 95) return "expense-create";
+        return "login";
+    }
+
+    private boolean call(String endpoint, Client client) throws IOException, InterruptedException {
+        HttpRequest.Builder request = switch (endpoint) {
+            case "login" -> post("/login", "{\"email\":\"" + client.profile.email() + "\",\"password\":\""
+                    + PerfDataSeeder.PASSWORD + "\"}");
+            case "dashboard" -> get("/dashboard");
+            case "filter" -> post("/filter", "{\"type\":\"expense\",\"sortField\":\"date\",\"sortOrder\":\"desc\",\"keyword\":\"\"}");
+            case "expense-create" -> post("/expense/create", "{\"name\":\"Perf expense\",\"icon\":\"cart\",\"amount\":12.34,\"categoryId\":"
+                    + client.profile.expenseCategoryId() + ",\"date\":\"" + LocalDate.now() + "\"}");
+            case "income-crm" -> get("/income/get-incomes-crm");
+            default -> throw new IllegalArgumentException(endpoint);
+        };
+        if (!"login".equals(endpoint)) {
+            request.header("Authorization", "Bearer " + client.token);
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() / 100 == 2;
+    }
+
+    private String login(String email) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(post("/login", "{\"email\":\"" + email + "\",\"password\":\""
+                + PerfDataSeeder.PASSWORD + "\"}").build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed for " + email + ": " + response.statusCode() + " " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private int report(double elapsedSeconds) throws IOException {
+        List<String> violations = new ArrayList<>();
+        StringBuilder json = new StringBuilder("{\n  \"endpoints\": {\n");
+        System.out.printf("%n%-16s %10s %8s %10s %10s %12s%n", "endpoint", "requests", "errors", "p50 ms", "p99 ms", "statements");
+        int total = 0;
+        int index = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            double p50 = endpoint.percentileMillis(50);
+            double p99 = endpoint.percentileMillis(99);
+            total += endpoint.count();
+            System.out.printf(Locale.ROOT, "%-16s %10d %8d %10.2f %10.2f %12.1f%n", endpoint.name(), endpoint.count(),
+                    endpoint.errors(), p50, p99, endpoint.statementsPerRequest());
+            json.append(String.format(Locale.ROOT,
+                    "    \"%s\": {\"requests\": %d, \"errors\": %d, \"p50Ms\": %.3f, \"p99Ms\": %.3f, \"statementsPerRequest\": %.2f}%s%n",
+                    endpoint.name(), endpoint.count(), endpoint.errors(), p50, p99, endpoint.statementsPerRequest(),
+                    ++index < stats.size() ? "," : ""));
+            checkBudget(violations, endpoint.name(), "p50-ms", p50);
+            checkBudget(violations, endpoint.name(), "p99-ms", p99);
+            checkBudget(violations, endpoint.name(), "statements", endpoint.statementsPerRequest());
+            if (endpoint.errors() > 0) {
+                violations.add(endpoint.name() + ": " + endpoint.errors() + " failed requests");
+            }
+        }
+        double throughput = total / elapsedSeconds;
+        System.out.printf(Locale.ROOT, "%nthroughput: %.1f requests/s%n", throughput);
+        json.append(String.format(Locale.ROOT, "  },%n  \"throughput\": %.2f%n}%n", throughput));
+        String minThroughput = config.getProperty("budget.total.min-throughput");
+        if (minThroughput != null && throughput < Double.parseDouble(minThroughput)) {
+            violations.add(String.format(Locale.ROOT, "throughput %.1f/s below budget %s/s", throughput, minThroughput));
+        }
+
+        Path output = Path.of(config.getProperty("perf.output"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.writeString(output, json);
+        System.out.println("results written to " + output);
+
+        if (violations.isEmpty()) {
+            System.out.println("all budgets met");
+            return 0;
+        }
+        System.out.println("budget violations:");
+        violations.forEach(violation -> System.out.println("  " + violation));
+        return 1;
+    }
+
+    private void checkBudget(List<String> violations, String endpoint, String metric, double value) {
+        String budget = config.getProperty("budget." + endpoint + "." + metric);
+        if (budget != null && !(value <= Double.parseDouble(budget))) {
+            violations.add(String.format(Locale.ROOT, "%s %s %.2f exceeds budget %s", endpoint, metric, value, budget));
+        }
+    }
+
+    private int intConfig(String key) {
+        return Integer.parseInt(config.getProperty(key).trim());
+    }
+
+    private static final class Client {
+        private final PerfDataSeeder.SeededProfile profile;
+        private final String token;
+
+        private Client(PerfDataSeeder.SeededProfile profile, String token) {
+            this.profile = profile;
+            this.token = token;
+        }
+    }
+}
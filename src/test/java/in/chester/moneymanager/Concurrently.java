@@ -0,0 +1,41 @@
+package in.chester.moneymanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs a task on several threads released together, for tests of racing first writes.
+public final class Concurrently {
+
+    private Concurrently() {
+    }
+
+    // Returns once every run has finished; rethrows the first failure, e.g. a duplicate key from a racing insert
+    public static void run(int threads, Runnable task) {
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> runs = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                runs.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    task.run();
+                }, executor));
+            }
+            CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package in.chester.moneymanager;
+
+import in.chester.moneymanager.dto.ProfileDTO;
+import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.service.ProfileService;
+import in.chester.moneymanager.util.JwtUtil;
+import org.springframework.context.ApplicationContext;
+
+// Registers and activates a profile through ProfileService and issues it a token, as the API would.
+public final class TestProfiles {
+
+    public record TestProfile(Long id, String email, String token) {
+
+        public String bearer() {
+            return "Bearer " + token;
+        }
+    }
+
+    private TestProfiles() {
+    }
+
+    public static TestProfile register(ApplicationContext context, String email) {
+        ProfileService profileService = context.getBean(ProfileService.class);
+        ProfileDTO profile = profileService.registerProfile(ProfileDTO.builder()
+                .fullName("Test User")
+                .email(email)
+                .password("password")
+                .build());
+        String activationToken = context.getBean(ProfileRepository.class).findByEmail(email)
+                .orElseThrow()
+                .getActivationToken();
+        profileService.activateProfile(activationToken);
+        return new TestProfile(profile.getId(), email, context.getBean(JwtUtil.class).generateToken(email));
+    }
+}
@@ -0,0 +1,107 @@
+package in.chester.moneymanager.config;
+
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.TestProfiles.TestProfile;
+import in.chester.moneymanager.entity.CategoryEntity;
+import in.chester.moneymanager.entity.ExpenseEntity;
+import in.chester.moneymanager.entity.ProfileEntity;
+import in.chester.moneymanager.repository.CategoryRepository;
+import in.chester.moneymanager.repository.ExpenseRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.util.QueryBudget.QueryBudgetExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+@AutoConfigureMockMvc
+@Import(QueryBudgetConfigTest.NPlusOneController.class)
+class QueryBudgetConfigTest {
+
+    // one more category than the default per-request budget of 20
+    private static final int CATEGORIES = 21;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Test
+    void aRouteThatLoadsOneRowPerStatementFailsTheRequest() throws Exception {
+        TestProfile profile = TestProfiles.register(context, "n-plus-one@example.com");
+        mockMvc.perform(get("/test/expenses/{profileId}/count", profile.id())
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+                .andExpect(status().isOk());
+
+        addExpensesInDistinctCategories(profile.id(), CATEGORIES);
+
+        assertThatThrownBy(() -> mockMvc.perform(get("/test/expenses/{profileId}/count", profile.id())
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer())))
+                .satisfies(failure -> assertThat(NestedExceptionUtils.getMostSpecificCause(failure))
+                        .isInstanceOf(QueryBudgetExceededException.class)
+                        .hasMessageContaining("GET /test/expenses"));
+    }
+
+    private void addExpensesInDistinctCategories(Long profileId, int count) {
+        ProfileEntity profile = profileRepository.findById(profileId).orElseThrow();
+        for (int i = 0; i < count; i++) {
+            CategoryEntity category = categoryRepository.save(CategoryEntity.builder()
+                    .name("Category " + i)
+                    .type("expense")
+                    .icon("cart")
+                    .profile(profile)
+                    .build());
+            expenseRepository.save(ExpenseEntity.builder()
+                    .name("Expense " + i)
+                    .icon("cart")
+                    .amount(BigDecimal.ONE)
+                    .date(LocalDate.now())
+                    .category(category)
+                    .profile(profile)
+                    .build());
+        }
+    }
+
+    // the eager category is fetched with one select per distinct category after the expense query
+    @RestController
+    static class NPlusOneController {
+
+        private final ExpenseRepository expenseRepository;
+
+        NPlusOneController(ExpenseRepository expenseRepository) {
+            this.expenseRepository = expenseRepository;
+        }
+
+        @GetMapping("/test/expenses/{profileId}/count")
+        int count(@PathVariable Long profileId) {
+            return expenseRepository.findByProfileIdOrderByDateDesc(profileId).size();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package in.chester.moneymanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.profiles.active=test")
+// tests turn metrics export off by default, which would leave no prometheus endpoint to secure
+@AutoConfigureObservability(tracing = false)
+class SecurityConfigTest {
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void actuatorIsNotServedOnTheApplicationPort() {
+        assertThat(get(serverPort, "/api/v1.0/actuator/prometheus").getStatusCode().is2xxSuccessful()).isFalse();
+        assertThat(get(serverPort, "/api/v1.0/actuator/health").getStatusCode().is2xxSuccessful()).isFalse();
+    }
+
+    @Test
+    void healthAndMetricsAreOpenOnTheManagementPort() {
+        // no token needed; the status itself depends on the mail server and database being up
+        ResponseEntity<String> health = get(managementPort, "/actuator/health");
+        assertThat(health.getStatusCode()).isNotIn(HttpStatus.UNAUTHORIZED, HttpStatus.FORBIDDEN);
+        assertThat(health.getBody()).contains("\"status\"");
+        // the scrape format a Prometheus server asks for
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.TEXT_PLAIN));
+        ResponseEntity<String> metrics = restTemplate.exchange("http://localhost:" + managementPort + "/actuator/prometheus",
+                HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(metrics.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(metrics.getBody()).contains("jvm_memory_used_bytes");
+    }
+
+    private ResponseEntity<String> get(int port, String path) {
+        return restTemplate.getForEntity("http://localhost:" + port + path, String.class);
+    }
+}
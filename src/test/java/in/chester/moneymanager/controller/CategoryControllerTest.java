@@ -0,0 +1,84 @@
+package in.chester.moneymanager.controller;
+
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.TestProfiles.TestProfile;
+import in.chester.moneymanager.entity.CategoryEntity;
+import in.chester.moneymanager.repository.CategoryRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.service.DataVersionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+@AutoConfigureMockMvc
+class CategoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void aNewEtagAlwaysComesWithTheCategoriesOfThatVersion() throws Exception {
+        TestProfile profile = TestProfiles.register(context, "categories-" + UUID.randomUUID() + "@example.com");
+        String etag = mockMvc.perform(get("/categories/get-categories").header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        // a change made through another instance: committed and versioned, but this instance's cache never evicted
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            categoryRepository.save(CategoryEntity.builder()
+                    .name("Rent")
+                    .type("expense")
+                    .icon("home")
+                    .profile(profileRepository.getReferenceById(profile.id()))
+                    .build());
+            dataVersionService.bump(profile.id());
+        });
+
+        String newEtag = mockMvc.perform(get("/categories/get-categories")
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Rent"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+
+        mockMvc.perform(get("/categories/expense")
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer())
+                        .header(HttpHeaders.IF_NONE_MATCH, newEtag))
+                .andExpect(status().isNotModified());
+    }
+}
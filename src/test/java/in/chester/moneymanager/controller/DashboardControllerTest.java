@@ -0,0 +1,117 @@
+package in.chester.moneymanager.controller;
+
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.TestProfiles.TestProfile;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+@AutoConfigureMockMvc
+class DashboardControllerTest {
+
+    // data version (ETag) + balance row + latest incomes + latest expenses
+    private static final long DASHBOARD_STATEMENTS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private TestProfile profile;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        profile = TestProfiles.register(context, "dashboard-" + UUID.randomUUID() + "@example.com");
+        MvcResult category = mockMvc.perform(post("/categories/create")
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Groceries\",\"type\":\"expense\",\"icon\":\"cart\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        categoryId = Long.valueOf(JsonPath.read(category.getResponse().getContentAsString(), "$.id").toString());
+    }
+
+    @Test
+    void dashboardRunsAFixedNumberOfStatementsWhateverTheLedgerSize() throws Exception {
+        addExpenses(2);
+        assertThat(dashboardStatements()).isEqualTo(DASHBOARD_STATEMENTS);
+
+        addExpenses(25);
+        assertThat(dashboardStatements()).isEqualTo(DASHBOARD_STATEMENTS);
+    }
+
+    @Test
+    void revalidationWithTheCurrentEtagOnlyReadsTheDataVersion() throws Exception {
+        addExpenses(3);
+        String etag = mockMvc.perform(get("/dashboard").header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recent5Expenses.length()").value(3))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        statistics.clear();
+        mockMvc.perform(get("/dashboard")
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        addExpenses(1);
+        mockMvc.perform(get("/dashboard")
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recent5Expenses.length()").value(4));
+    }
+
+    // statements of one warm /dashboard request; the first request also loads the caller's profile
+    private long dashboardStatements() throws Exception {
+        mockMvc.perform(get("/dashboard").header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+                .andExpect(status().isOk());
+        statistics.clear();
+        mockMvc.perform(get("/dashboard").header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addExpenses(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            mockMvc.perform(post("/expense/create")
+                            .header(HttpHeaders.AUTHORIZATION, profile.bearer())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Expense " + i + "\",\"icon\":\"cart\",\"amount\":12.50,\"categoryId\":"
+                                    + categoryId + ",\"date\":\"" + LocalDate.now().minusDays(i) + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+    }
+}
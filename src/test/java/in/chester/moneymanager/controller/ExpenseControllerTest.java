@@ -0,0 +1,92 @@
+package in.chester.moneymanager.controller;
+
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.TestProfiles.TestProfile;
+import in.chester.moneymanager.entity.CategoryEntity;
+import in.chester.moneymanager.repository.CategoryRepository;
+import in.chester.moneymanager.repository.ProfileBalanceRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import in.chester.moneymanager.service.CategoryCache;
+import in.chester.moneymanager.service.DataVersionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+@AutoConfigureMockMvc
+class ExpenseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private ProfileBalanceRepository profileBalanceRepository;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Test
+    void importRejectsOnlyTheRowsThatCannotBeSaved() throws Exception {
+        TestProfile profile = TestProfiles.register(context, "import-" + UUID.randomUUID() + "@example.com");
+        addCategory(profile, "Groceries");
+        CategoryEntity deleted = addCategory(profile, "Travel");
+        categoryCache.findByType(profile.id(), "expense", dataVersionService.currentVersion(profile.id()));
+        // deleted while the cached list still names it, so the import only finds out from the foreign key
+        categoryRepository.delete(deleted);
+
+        String csv = """
+                name,amount,category
+                Bread,12.50,Groceries
+                Train,30,Travel
+                %s,5,Groceries
+                Milk,7.50,Groceries
+                Eggs,1.005,Groceries
+                """.formatted("x".repeat(256));
+        mockMvc.perform(multipart("/expense/import")
+                        .file(new MockMultipartFile("file", "expenses.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)))
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[*].row").value(containsInAnyOrder(2, 3, 5)));
+
+        assertThat(profileBalanceRepository.findById(profile.id()).orElseThrow().getTotalExpense())
+                .isEqualByComparingTo(new BigDecimal("20"));
+    }
+
+    private CategoryEntity addCategory(TestProfile profile, String name) {
+        return categoryRepository.save(CategoryEntity.builder()
+                .name(name)
+                .type("expense")
+                .icon("icon")
+                .profile(profileRepository.getReferenceById(profile.id()))
+                .build());
+    }
+}
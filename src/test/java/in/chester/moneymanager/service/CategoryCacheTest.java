@@ -0,0 +1,82 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.TestProfiles.TestProfile;
+import in.chester.moneymanager.dto.CategoryDTO;
+import in.chester.moneymanager.entity.CategoryEntity;
+import in.chester.moneymanager.repository.CategoryRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+class CategoryCacheTest {
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void aNewerDataVersionReloadsTheList() {
+        TestProfile profile = register();
+        assertThat(categoryCache.findAll(profile.id(), 0)).isEmpty();
+
+        // written elsewhere, e.g. through another instance, so this cache was never evicted
+        CategoryEntity groceries = addCategory(profile, "Groceries", "expense");
+
+        assertThat(categoryCache.findAll(profile.id(), 0)).isEmpty();
+        assertThat(categoryCache.findAll(profile.id(), 1)).extracting(CategoryDTO::getId).containsExactly(groceries.getId());
+        assertThat(categoryCache.findByType(profile.id(), "income", 1)).isEmpty();
+    }
+
+    @Test
+    void findOwnedLooksUpACategoryMissingFromTheCachedList() {
+        TestProfile profile = register();
+        TestProfile other = register();
+        assertThat(categoryCache.findAll(profile.id(), 0)).isEmpty();
+
+        CategoryEntity salary = addCategory(profile, "Salary", "income");
+
+        assertThat(categoryCache.findOwned(profile.id(), salary.getId(), 0)).map(CategoryDTO::getName).contains("Salary");
+        assertThat(categoryCache.findOwned(other.id(), salary.getId(), 0)).isEmpty();
+    }
+
+    @Test
+    void findOwnedRejectsACategoryDeletedSinceTheListWasCached() {
+        TestProfile profile = register();
+        CategoryEntity rent = addCategory(profile, "Rent", "expense");
+        assertThat(categoryCache.findOwned(profile.id(), rent.getId(), 0)).isPresent();
+
+        // deleted through another instance, which bumped the data version but could not evict this cache
+        categoryRepository.delete(rent);
+
+        assertThat(categoryCache.findOwned(profile.id(), rent.getId(), 1)).isEmpty();
+    }
+
+    private TestProfile register() {
+        return TestProfiles.register(context, "categories-" + UUID.randomUUID() + "@example.com");
+    }
+
+    private CategoryEntity addCategory(TestProfile profile, String name, String type) {
+        return categoryRepository.save(CategoryEntity.builder()
+                .name(name)
+                .type(type)
+                .icon("icon")
+                .profile(profileRepository.getReferenceById(profile.id()))
+                .build());
+    }
+}
@@ -0,0 +1,113 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.Concurrently;
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.entity.CategoryEntity;
+import in.chester.moneymanager.entity.CategoryRollupEntity;
+import in.chester.moneymanager.entity.CategoryRollupId;
+import in.chester.moneymanager.entity.ExpenseEntity;
+import in.chester.moneymanager.repository.CategoryRepository;
+import in.chester.moneymanager.repository.CategoryRollupRepository;
+import in.chester.moneymanager.repository.ExpenseRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+class CategoryRollupServiceTest {
+
+    private static final int WRITERS = 8;
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 14);
+
+    @Autowired
+    private CategoryRollupService categoryRollupService;
+
+    @Autowired
+    private CategoryRollupRepository categoryRollupRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long profileId;
+    private CategoryEntity category;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        profileId = TestProfiles.register(context, "rollup-" + UUID.randomUUID() + "@example.com").id();
+        category = categoryRepository.save(CategoryEntity.builder()
+                .name("Groceries")
+                .type(CategoryRollupService.TYPE_EXPENSE)
+                .icon("cart")
+                .profile(profileRepository.getReferenceById(profileId))
+                .build());
+    }
+
+    @Test
+    void concurrentFirstWritesForABucketCountEveryExpense() {
+        Concurrently.run(WRITERS, this::addExpense);
+
+        assertBucket(new BigDecimal("80"), WRITERS);
+    }
+
+    @Test
+    void rebuildAllRestoresABucketThatDriftedFromTheLedger() {
+        addExpense();
+        addExpense();
+        // a delta with no ledger row behind it
+        transactionTemplate.executeWithoutResult(status -> categoryRollupService.applyDelta(
+                CategoryRollupService.TYPE_EXPENSE, profileId, category.getId(), DATE, new BigDecimal("5"), 1));
+        assertBucket(new BigDecimal("25"), 3);
+
+        categoryRollupService.rebuildAll();
+
+        assertBucket(new BigDecimal("20"), 2);
+    }
+
+    // the ledger row and its delta in one transaction, as ExpenseService writes them
+    private void addExpense() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ExpenseEntity expense = expenseRepository.save(ExpenseEntity.builder()
+                    .name("Expense")
+                    .icon("cart")
+                    .amount(BigDecimal.TEN)
+                    .date(DATE)
+                    .category(category)
+                    .profile(profileRepository.getReferenceById(profileId))
+                    .build());
+            categoryRollupService.record(CategoryRollupService.TYPE_EXPENSE, profileId, category.getId(),
+                    expense.getDate(), expense.getAmount());
+        });
+    }
+
+    private void assertBucket(BigDecimal amount, long transactionCount) {
+        CategoryRollupEntity rollup = categoryRollupRepository.findById(new CategoryRollupId(
+                profileId, category.getId(), DATE.withDayOfMonth(1), CategoryRollupService.TYPE_EXPENSE)).orElseThrow();
+        assertThat(rollup.getAmount()).isEqualByComparingTo(amount);
+        assertThat(rollup.getTransactionCount()).isEqualTo(transactionCount);
+    }
+}
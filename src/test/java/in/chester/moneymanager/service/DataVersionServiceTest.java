@@ -0,0 +1,57 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.Concurrently;
+import in.chester.moneymanager.TestProfiles;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+class DataVersionServiceTest {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFirstChangesForAProfileEachBumpTheVersion() {
+        Long profileId = TestProfiles.register(context, "version-" + UUID.randomUUID() + "@example.com").id();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Concurrently.run(WRITERS, () -> transactionTemplate.executeWithoutResult(status -> dataVersionService.bump(profileId)));
+
+        assertThat(dataVersionService.currentVersion(profileId)).isEqualTo(WRITERS);
+    }
+
+    @Test
+    void onlyOneOfSeveralChangesFromTheSameReadSeesTheNextVersion() {
+        Long profileId = TestProfiles.register(context, "version-" + UUID.randomUUID() + "@example.com").id();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger uncontended = new AtomicInteger();
+
+        // every writer read version 0, the profile's first change
+        Concurrently.run(WRITERS, () -> transactionTemplate.executeWithoutResult(status -> {
+            if (dataVersionService.bumpFrom(profileId, 0)) {
+                uncontended.incrementAndGet();
+            }
+        }));
+
+        assertThat(dataVersionService.currentVersion(profileId)).isEqualTo(WRITERS);
+        assertThat(uncontended).hasValue(1);
+    }
+}
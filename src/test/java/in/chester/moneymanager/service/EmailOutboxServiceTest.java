@@ -0,0 +1,67 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.entity.EmailOutboxEntity;
+import in.chester.moneymanager.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.email.outbox.max-attempts=3"
+})
+class EmailOutboxServiceTest {
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @Test
+    void reclaimingAnExpiredLeaseCountsAsAnAttempt() {
+        EmailOutboxEntity message = expiredLease("reclaimed@example.com", 1);
+
+        emailOutboxService.dispatchDue();
+
+        EmailOutboxEntity sent = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertThat(sent.getStatus()).isEqualTo(EmailOutboxEntity.Status.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void aMessageWhoseLeaseKeepsExpiringEndsUpDead() {
+        EmailOutboxEntity message = expiredLease("crashing@example.com", 3);
+
+        emailOutboxService.dispatchDue();
+
+        EmailOutboxEntity dead = emailOutboxRepository.findById(message.getId()).orElseThrow();
+        assertThat(dead.getStatus()).isEqualTo(EmailOutboxEntity.Status.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(3);
+        verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
+    }
+
+    // a row claimed by a worker that died before it reported back
+    private EmailOutboxEntity expiredLease(String recipient, int attempts) {
+        return emailOutboxRepository.save(EmailOutboxEntity.builder()
+                .recipient(recipient)
+                .subject("Subject")
+                .body("Body")
+                .status(EmailOutboxEntity.Status.SENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now().minusMinutes(1))
+                .build());
+    }
+}
@@ -0,0 +1,121 @@
+package in.chester.moneymanager.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import in.chester.moneymanager.dto.EmailDTO;
+import in.chester.moneymanager.util.RateLimiter;
+import in.chester.moneymanager.util.SmtpTransportPool;
+import jakarta.mail.Transport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// EmailService against an in-process GreenMail SMTP server
+class EmailServiceTest {
+
+    private GreenMail greenMail;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        startServer();
+
+        // configured the way the mail auto-configuration configures it
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setProtocol("smtp");
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        mailSender.setUsername("test");
+        mailSender.setPassword("test");
+        mailSender.getJavaMailProperties().put("mail.smtp.auth", "true");
+        emailService = new EmailService(mailSender);
+        ReflectionTestUtils.setField(emailService, "FROM_EMAIL", "test@example.com");
+        ReflectionTestUtils.setField(emailService, "poolSize", 2);
+        // every borrow of an idle connection checks it with a NOOP
+        ReflectionTestUtils.setField(emailService, "idleCheckMillis", 0L);
+        ReflectionTestUtils.setField(emailService, "ratePerSecond", 1000.0);
+        emailService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailService.shutdown();
+        greenMail.stop();
+    }
+
+    @Test
+    void sendsABatchOverOneConnection() {
+        List<EmailDTO> failed = emailService.sendBatch(emails(5));
+
+        assertThat(failed).isEmpty();
+        assertThat(greenMail.getReceivedMessages()).hasSize(5);
+    }
+
+    @Test
+    void retriesOnANewConnectionWhenTheServerDropsItMidBatch() {
+        AtomicInteger acquired = new AtomicInteger();
+        AtomicInteger receivedBeforeDrop = new AtomicInteger();
+        ReflectionTestUtils.setField(emailService, "rateLimiter", new RateLimiter(1000) {
+            @Override
+            public void acquire() throws InterruptedException {
+                if (acquired.incrementAndGet() == 3) {
+                    // the server goes away between the second and third message and comes back
+                    receivedBeforeDrop.set(greenMail.getReceivedMessages().length);
+                    greenMail.stop();
+                    startServer();
+                }
+                super.acquire();
+            }
+        });
+
+        List<EmailDTO> failed = emailService.sendBatch(emails(5));
+
+        assertThat(failed).isEmpty();
+        assertThat(receivedBeforeDrop.get()).isEqualTo(2);
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+    }
+
+    @Test
+    void reusesAnIdleConnectionThatAnswersTheNoop() throws Exception {
+        SmtpTransportPool pool = (SmtpTransportPool) ReflectionTestUtils.getField(emailService, "transportPool");
+
+        Transport first = pool.borrow();
+        pool.release(first, false);
+        Transport second = pool.borrow();
+        pool.release(second, false);
+        assertThat(second).isSameAs(first);
+
+        // a connection the server dropped while idle fails the NOOP and is replaced
+        greenMail.stop();
+        startServer();
+        Transport third = pool.borrow();
+        pool.release(third, false);
+        assertThat(third).isNotSameAs(first);
+        assertThat(emailService.sendBatch(emails(1))).isEmpty();
+    }
+
+    // a restarted server starts with no users
+    private void startServer() {
+        greenMail.start();
+        greenMail.setUser("test@example.com", "test", "test");
+    }
+
+    private static List<EmailDTO> emails(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> EmailDTO.builder()
+                        .to("user" + i + "@example.com")
+                        .subject("Subject " + i)
+                        .body("Body " + i)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,172 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.MoneyManagerApplication;
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.entity.JobPartitionEntity;
+import in.chester.moneymanager.repository.JobPartitionRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two application contexts on one H2 database stand in for two nodes sharing the partition table.
+class JobPartitionServiceTest {
+
+    private static final String DATABASE_URL = "jdbc:h2:mem:jobs;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    private static final int PROFILES = 7;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        for (int i = 0; i < PROFILES; i++) {
+            TestProfiles.register(nodeA, "jobs-" + i + "@example.com");
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void everyPartitionRunsExactlyOnceAcrossNodes() {
+        String job = "exactly-once";
+        Map<Long, Integer> runsByPartitionStart = new ConcurrentHashMap<>();
+        JobPartitionService.Worker worker = (runKey, afterId, toId, checkpoint) -> {
+            runsByPartitionStart.merge(afterId, 1, Integer::sum);
+            sleep(20);
+            checkpoint.test(Math.min(toId, afterId + 1));
+        };
+        jobs(nodeA).register(job, worker);
+        jobs(nodeB).register(job, worker);
+
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> jobs(nodeA).run(job, "run-1")),
+                CompletableFuture.runAsync(() -> jobs(nodeB).run(job, "run-1"))
+        ).join();
+
+        List<JobPartitionEntity> partitions = partitions(job);
+        assertThat(partitions).hasSizeGreaterThan(1);
+        assertThat(partitions).allMatch(partition -> partition.getStatus() == JobPartitionEntity.Status.DONE);
+        assertThat(runsByPartitionStart.keySet())
+                .isEqualTo(partitions.stream().map(JobPartitionEntity::getFromIdExclusive).collect(Collectors.toSet()));
+        assertThat(runsByPartitionStart.values()).allMatch(runs -> runs == 1);
+    }
+
+    @Test
+    void aStolenLeaseStopsTheOldOwnerAtItsNextCheckpoint() throws Exception {
+        String job = "stolen-lease";
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        AtomicReference<Boolean> oldOwnerCheckpoint = new AtomicReference<>();
+        Set<Long> takenOver = ConcurrentHashMap.newKeySet();
+        jobs(nodeA).register(job, (runKey, afterId, toId, checkpoint) -> {
+            if (oldOwnerCheckpoint.get() == null && holding.getCount() > 0) {
+                holding.countDown();
+                await(resume);
+                oldOwnerCheckpoint.set(checkpoint.test(afterId + 1));
+            }
+        });
+        jobs(nodeB).register(job, (runKey, afterId, toId, checkpoint) -> takenOver.add(afterId));
+
+        CompletableFuture<Void> oldOwner = CompletableFuture.runAsync(() -> jobs(nodeA).run(job, "run-1"));
+        await(holding);
+        // node A stalls past its lease, node B claims the partition
+        expireLeases(job);
+        jobs(nodeB).run(job, "run-1");
+        resume.countDown();
+        oldOwner.get(30, TimeUnit.SECONDS);
+
+        assertThat(oldOwnerCheckpoint.get()).isFalse();
+        assertThat(takenOver).contains(0L);
+        assertThat(partitions(job)).allMatch(partition -> partition.getStatus() == JobPartitionEntity.Status.DONE);
+    }
+
+    @Test
+    void resumeStalledPicksUpAPartitionWhoseOwnerDied() {
+        String job = "owner-died";
+        jobs(nodeA).register(job, (runKey, afterId, toId, checkpoint) -> {
+            checkpoint.test(afterId + 1);
+            throw new IllegalStateException("node went down");
+        });
+        Map<Long, Long> resumedFrom = new ConcurrentHashMap<>();
+        jobs(nodeB).register(job, (runKey, afterId, toId, checkpoint) -> resumedFrom.put(toId, afterId));
+
+        jobs(nodeA).run(job, "run-1");
+        assertThat(partitions(job)).allMatch(partition -> partition.getStatus() == JobPartitionEntity.Status.RUNNING);
+        expireLeases(job);
+        jobs(nodeB).resumeStalled();
+
+        List<JobPartitionEntity> partitions = partitions(job);
+        assertThat(partitions).allMatch(partition -> partition.getStatus() == JobPartitionEntity.Status.DONE);
+        // each range restarts from its checkpoint, not from the start of the range
+        for (JobPartitionEntity partition : partitions) {
+            assertThat(resumedFrom.get(partition.getToIdInclusive())).isEqualTo(partition.getFromIdExclusive() + 1);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(MoneyManagerApplication.class)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=" + DATABASE_URL,
+                        "--server.port=0",
+                        "--app.jobs.partition-size=2");
+    }
+
+    private static JobPartitionService jobs(ConfigurableApplicationContext node) {
+        return node.getBean(JobPartitionService.class);
+    }
+
+    private static List<JobPartitionEntity> partitions(String job) {
+        return nodeA.getBean(JobPartitionRepository.class).findAll().stream()
+                .filter(partition -> partition.getJobName().equals(job))
+                .toList();
+    }
+
+    private static void expireLeases(String job) {
+        Timestamp expired = Timestamp.valueOf(LocalDateTime.now().minusMinutes(1));
+        new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class)).executeWithoutResult(status ->
+                nodeA.getBean(JdbcTemplate.class)
+                        .update("UPDATE job_partitions_tbl SET lease_until = ? WHERE job_name = ?", expired, job));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
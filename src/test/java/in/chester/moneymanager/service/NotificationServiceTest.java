@@ -0,0 +1,85 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.TestProfiles.TestProfile;
+import in.chester.moneymanager.dto.EmailDTO;
+import in.chester.moneymanager.entity.JobPartitionEntity;
+import in.chester.moneymanager.repository.JobPartitionRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:notification;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.notification.default-timezone=UTC",
+        "app.notification.reminder-hour=20",
+        "app.notification.catch-up=15m"
+})
+class NotificationServiceTest {
+
+    // the reminder hour in UTC; a profile is due in the five-minute slot id % 12
+    private static final Instant REMINDER_HOUR = Instant.parse("2026-03-14T20:00:00Z");
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private JobPartitionRepository jobPartitionRepository;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private Clock clock;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void plansEveryTickOfTheCatchUpWindowAndRemindsTheProfilesDueInThem() throws Exception {
+        TestProfile due = TestProfiles.register(context, "evening-due@example.com");
+        // the next slot, which this tick does not reach yet
+        TestProfile later = TestProfiles.register(context, "evening-later@example.com");
+        long slot = Math.floorMod(due.id(), 12L);
+        assertThat(Math.floorMod(later.id(), 12L)).isNotEqualTo(slot);
+        // a few seconds into the slot, as a scheduler firing late would read the clock
+        when(clock.instant()).thenReturn(REMINDER_HOUR.plusSeconds(slot * 300 + 42));
+
+        notificationService.dispatchEveningEmails();
+
+        // this tick plus the ones before it in the catch-up window that are still in the reminder hour
+        Set<String> runKeys = partitions().stream().map(JobPartitionEntity::getRunKey).collect(Collectors.toSet());
+        assertThat(runKeys).hasSize((int) Math.min(slot, 3) + 1);
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (partitions().stream().anyMatch(partition -> partition.getStatus() != JobPartitionEntity.Status.DONE)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(partitions()).allMatch(partition -> partition.getStatus() == JobPartitionEntity.Status.DONE);
+
+        ArgumentCaptor<List<EmailDTO>> sent = ArgumentCaptor.forClass(List.class);
+        verify(emailService).sendBatch(sent.capture());
+        assertThat(sent.getValue()).extracting(EmailDTO::getTo).containsExactly(due.email());
+        assertThat(sent.getValue()).extracting(EmailDTO::getSubject).containsExactly("Daily Income and Expense Reminder");
+    }
+
+    private List<JobPartitionEntity> partitions() {
+        return jobPartitionRepository.findAll();
+    }
+}
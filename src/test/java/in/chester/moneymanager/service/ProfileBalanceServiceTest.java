@@ -0,0 +1,125 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.Concurrently;
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.entity.CategoryEntity;
+import in.chester.moneymanager.entity.ExpenseEntity;
+import in.chester.moneymanager.entity.ProfileBalanceEntity;
+import in.chester.moneymanager.repository.CategoryRepository;
+import in.chester.moneymanager.repository.ExpenseRepository;
+import in.chester.moneymanager.repository.ProfileBalanceRepository;
+import in.chester.moneymanager.repository.ProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+class ProfileBalanceServiceTest {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private ProfileBalanceService profileBalanceService;
+
+    @Autowired
+    private ProfileBalanceRepository profileBalanceRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long profileId;
+    private CategoryEntity category;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        profileId = TestProfiles.register(context, "balance-" + UUID.randomUUID() + "@example.com").id();
+        category = categoryRepository.save(CategoryEntity.builder()
+                .name("Groceries")
+                .type(CategoryRollupService.TYPE_EXPENSE)
+                .icon("cart")
+                .profile(profileRepository.getReferenceById(profileId))
+                .build());
+    }
+
+    @Test
+    void concurrentFirstWritesForAProfileCountEveryExpense() {
+        Concurrently.run(WRITERS, this::addExpense);
+
+        assertBalance(new BigDecimal("80"), WRITERS);
+    }
+
+    @Test
+    void reversingAnExpenseTakesItOffTheTotals() {
+        addExpense();
+        ExpenseEntity removed = addExpense();
+        addExpense();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            expenseRepository.delete(removed);
+            profileBalanceService.reverseExpense(profileId, removed.getAmount());
+        });
+
+        assertBalance(new BigDecimal("20"), 2);
+    }
+
+    @Test
+    void reconcileAllRebuildsTotalsThatDriftedFromTheLedger() {
+        addExpense();
+        addExpense();
+        // a delta with no ledger row behind it
+        transactionTemplate.executeWithoutResult(status ->
+                profileBalanceService.applyDelta(profileId, BigDecimal.ZERO, 0, new BigDecimal("5"), 1));
+        assertBalance(new BigDecimal("25"), 3);
+
+        profileBalanceService.reconcileAll();
+
+        assertBalance(new BigDecimal("20"), 2);
+    }
+
+    // the ledger row and its delta in one transaction, as ExpenseService writes them
+    private ExpenseEntity addExpense() {
+        return transactionTemplate.execute(status -> {
+            ExpenseEntity expense = expenseRepository.save(ExpenseEntity.builder()
+                    .name("Expense")
+                    .icon("cart")
+                    .amount(BigDecimal.TEN)
+                    .date(LocalDate.now())
+                    .category(category)
+                    .profile(profileRepository.getReferenceById(profileId))
+                    .build());
+            profileBalanceService.recordExpense(profileId, expense.getAmount());
+            return expense;
+        });
+    }
+
+    private void assertBalance(BigDecimal totalExpense, long expenseCount) {
+        ProfileBalanceEntity balance = profileBalanceRepository.findById(profileId).orElseThrow();
+        assertThat(balance.getTotalExpense()).isEqualByComparingTo(totalExpense);
+        assertThat(balance.getExpenseCount()).isEqualTo(expenseCount);
+        assertThat(balance.getTotalIncome()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,169 @@
+package in.chester.moneymanager.service;
+
+import in.chester.moneymanager.TestProfiles;
+import in.chester.moneymanager.TestProfiles.TestProfile;
+import in.chester.moneymanager.security.AppUserPrincipal;
+import in.chester.moneymanager.util.ShardContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A directory and two shards, each its own H2 database.
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:sharding_directory;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.sharding.urls=jdbc:h2:mem:sharding_shard0;MODE=PostgreSQL;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:sharding_shard1;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.sharding.mirror-retry-interval=1h"
+})
+@AutoConfigureMockMvc
+class ShardDirectoryTest {
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ProfileService profileService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void aProfilesDataIsWrittenToItsHomeShardOnly() throws Exception {
+        TestProfile profile = register();
+        int home = shardDirectory.shardOf(profile.id());
+
+        mockMvc.perform(post("/categories/create")
+                        .header(HttpHeaders.AUTHORIZATION, profile.bearer())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Groceries\",\"type\":\"expense\",\"icon\":\"cart\"}"))
+                .andExpect(status().isCreated());
+
+        assertThat(count(home, "categories_tbl", profile.id())).isEqualTo(1);
+        assertThat(count(1 - home, "categories_tbl", profile.id())).isZero();
+        assertThat(count(null, "categories_tbl", profile.id())).isZero();
+    }
+
+    @Test
+    void profileChangesAreMirroredToTheHomeShard() {
+        TestProfile profile = register();
+        int home = shardDirectory.shardOf(profile.id());
+
+        assertThat(onShard(home, "SELECT is_active FROM profiles_tbl WHERE id = ?", Boolean.class, profile.id())).isTrue();
+        assertThat(count(1 - home, "profiles_tbl", profile.id())).isZero();
+        assertThat(queuedMirrors(profile.id())).isZero();
+
+        signIn(profile);
+        profileService.updateTimezone("Asia/Kolkata");
+        assertThat(onShard(home, "SELECT timezone FROM profiles_tbl WHERE id = ?", String.class, profile.id()))
+                .isEqualTo("Asia/Kolkata");
+    }
+
+    @Test
+    void aMirrorThatFailedAfterCommitIsRetried() {
+        TestProfile profile = register();
+        int home = shardDirectory.shardOf(profile.id());
+
+        // the home shard rejects the copy; the directory change still commits and stays queued
+        updateOn(home, "ALTER TABLE profiles_tbl RENAME TO profiles_tbl_offline");
+        try {
+            signIn(profile);
+            profileService.updateTimezone("Europe/Berlin");
+        } finally {
+            updateOn(home, "ALTER TABLE profiles_tbl_offline RENAME TO profiles_tbl");
+        }
+        assertThat(onShard(home, "SELECT timezone FROM profiles_tbl WHERE id = ?", String.class, profile.id()))
+                .isNotEqualTo("Europe/Berlin");
+        assertThat(queuedMirrors(profile.id())).isEqualTo(1);
+
+        // old enough for the retry job to pick it up
+        updateOn(null, "UPDATE profile_mirror_outbox_tbl SET queued_at = ? WHERE profile_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(2)), profile.id());
+        shardDirectory.retryMirrors();
+
+        assertThat(onShard(home, "SELECT timezone FROM profiles_tbl WHERE id = ?", String.class, profile.id()))
+                .isEqualTo("Europe/Berlin");
+        assertThat(queuedMirrors(profile.id())).isZero();
+    }
+
+    @Test
+    void forEachShardRunsOncePerShardBoundToIt() {
+        Map<Integer, String> databases = new ConcurrentHashMap<>();
+
+        shardDirectory.forEachShard(() ->
+                databases.put(ShardContext.current(), jdbcTemplate.queryForObject("SELECT DATABASE()", String.class)));
+
+        assertThat(databases).containsExactlyInAnyOrderEntriesOf(Map.of(
+                0, "SHARDING_SHARD0",
+                1, "SHARDING_SHARD1"));
+    }
+
+    private TestProfile register() {
+        return TestProfiles.register(context, "shard-" + UUID.randomUUID() + "@example.com");
+    }
+
+    private static void signIn(TestProfile profile) {
+        AppUserPrincipal principal = AppUserPrincipal.builder()
+                .id(profile.id())
+                .email(profile.email())
+                .active(true)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+    }
+
+    private long queuedMirrors(Long profileId) {
+        return onShard(null, "SELECT COUNT(*) FROM profile_mirror_outbox_tbl WHERE profile_id = ?", Long.class, profileId);
+    }
+
+    private long count(Integer shard, String table, Long profileId) {
+        String column = table.equals("profiles_tbl") ? "id" : "profile_id";
+        return onShard(shard, "SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?", Long.class, profileId);
+    }
+
+    // shard null is the directory
+    private <T> T onShard(Integer shard, String sql, Class<T> type, Object... args) {
+        return ShardContext.callOn(shard, () -> jdbcTemplate.queryForObject(sql, type, args));
+    }
+
+    private void updateOn(Integer shard, String sql, Object... args) {
+        ShardContext.runOn(shard, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> jdbcTemplate.update(sql, args)));
+    }
+}
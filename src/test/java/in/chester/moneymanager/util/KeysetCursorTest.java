@@ -0,0 +1,45 @@
+package in.chester.moneymanager.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        KeysetCursor cursor = new KeysetCursor("date", Sort.Direction.DESC, "2026-03-14", 42L);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.sortValue()).isEqualTo(LocalDate.of(2026, 3, 14));
+        assertThat(KeysetCursor.decode(new KeysetCursor("amount", Sort.Direction.ASC, "12.50", 7L).encode()).sortValue())
+                .isEqualTo(new BigDecimal("12.50"));
+    }
+
+    @Test
+    void rejectsATamperedSortValue() {
+        assertThatThrownBy(() -> KeysetCursor.decode(token("1\ndate\nASC\n42\nnot-a-date")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(token("1\namount\nASC\n42\n12,50")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsAnUnknownSortField() {
+        assertThatThrownBy(() -> KeysetCursor.decode(token("1\ncreatedAt\nASC\n42\n2026-03-14")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String token(String payload) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
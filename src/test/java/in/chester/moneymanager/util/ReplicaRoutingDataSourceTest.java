@@ -0,0 +1,125 @@
+package in.chester.moneymanager.util;
+
+import in.chester.moneymanager.service.DataVersionService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two H2 databases stand in for the primary and its replica; each query reports which one it ran on.
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=jdbc:h2:mem:routing_replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.read-your-writes-window=1s"
+})
+class ReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY = "ROUTING_PRIMARY";
+    private static final String REPLICA = "ROUTING_REPLICA";
+    private static final long PROFILE_ID = 1L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void endRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        MockHttpServletResponse response = startRequest();
+        assertThat(databaseIn(true)).isEqualTo(REPLICA);
+        assertThat(databaseIn(false)).isEqualTo(PRIMARY);
+        // no transaction at all, e.g. schema setup, stays on the primary
+        assertThat(database()).isEqualTo(PRIMARY);
+
+        // a read-write transaction that changed nothing does not hold the client's reads back
+        assertThat(databaseIn(true)).isEqualTo(REPLICA);
+        assertThat(response.getCookie(ReadYourWrites.COOKIE)).isNull();
+    }
+
+    @Test
+    void aClientReadsItsOwnWritesFromThePrimaryForTheWindowAfterCommit() throws Exception {
+        MockHttpServletResponse response = startRequest();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            dataVersionService.bump(PROFILE_ID);
+            // a write that outlasts the window is still covered, as the window starts at commit
+            sleep(1_500);
+        });
+        assertThat(databaseIn(true)).isEqualTo(PRIMARY);
+
+        // the next request may reach another instance; the cookie carries the commit time there
+        Cookie lastWrite = response.getCookie(ReadYourWrites.COOKIE);
+        assertThat(lastWrite).isNotNull();
+        startRequest(lastWrite);
+        assertThat(databaseIn(true)).isEqualTo(PRIMARY);
+
+        // other clients are not held back by it
+        startRequest();
+        assertThat(databaseIn(true)).isEqualTo(REPLICA);
+
+        startRequest(lastWrite);
+        sleep(1_500);
+        assertThat(databaseIn(true)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void aRolledBackWriteLeavesReadsOnTheReplica() {
+        MockHttpServletResponse response = startRequest();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            dataVersionService.bump(PROFILE_ID);
+            status.setRollbackOnly();
+        });
+
+        assertThat(databaseIn(true)).isEqualTo(REPLICA);
+        assertThat(response.getCookie(ReadYourWrites.COOKIE)).isNull();
+    }
+
+    private String databaseIn(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> database());
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private static MockHttpServletResponse startRequest(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (cookies.length > 0) {
+            request.setCookies(cookies);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}